@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.benchmarks.jimfs.junit.jupiter;
+
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDir;
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDirFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of creating and deleting files in a Jimfs temporary directory,
+ * depending on the supported attribute views.
+ *
+ * <p>
+ * {@code PRESET} keeps the attribute views of the selected configuration, while the other
+ * values replace them with the given comma-separated list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributeViewsBenchmark {
+
+	@Param({ "UNIX", "WINDOWS" })
+	public String configuration;
+
+	@Param({ "PRESET", "basic" })
+	public String attributeViews;
+
+	@Param({ "100" })
+	public int files;
+
+	private BenchmarkContexts contexts;
+
+	private JimfsTempDirFactory tempDirFactory;
+
+	private Path tempDir;
+
+	@Setup
+	public void setUp() throws Exception {
+		Map<String, String> configurationParameters = new HashMap<>();
+		configurationParameters.put(JimfsTempDir.DEFAULT_CONFIGURATION_PARAMETER_NAME, configuration);
+		if (!"PRESET".equals(attributeViews)) {
+			configurationParameters.put(JimfsTempDir.DEFAULT_ATTRIBUTE_VIEWS_PARAMETER_NAME, attributeViews);
+		}
+		contexts = new BenchmarkContexts(configurationParameters);
+		tempDirFactory = new JimfsTempDirFactory();
+		tempDir = tempDirFactory.createTempDirectory(contexts.elementContext(), contexts.extensionContext());
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		TempDirState.deleteTempDirectory(tempDir, tempDirFactory);
+		contexts.close();
+	}
+
+	@Benchmark
+	public int createAndDeleteFiles() throws Exception {
+		for (int i = 0; i < files; i++) {
+			Files.createFile(tempDir.resolve("file-" + i));
+		}
+		for (int i = 0; i < files; i++) {
+			Files.delete(tempDir.resolve("file-" + i));
+		}
+		return files;
+	}
+
+}
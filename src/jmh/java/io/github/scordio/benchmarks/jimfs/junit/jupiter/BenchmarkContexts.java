@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.benchmarks.jimfs.junit.jupiter;
+
+import org.junit.jupiter.api.extension.AnnotatedElementContext;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Minimal contexts to invoke a {@link org.junit.jupiter.api.io.TempDirFactory} outside
+ * of the Jupiter engine, optionally for an annotated element.
+ *
+ * <p>
+ * The extension context behaves as the root context of an engine execution: it exposes
+ * the given configuration parameters and a store whose {@link AutoCloseable} values are
+ * closed by {@link #close()}, in reverse insertion order.
+ */
+final class BenchmarkContexts {
+
+	private final Map<String, String> configurationParameters;
+
+	private final AnnotatedElement annotatedElement;
+
+	private final Map<List<Object>, Object> values = Collections.synchronizedMap(new LinkedHashMap<>());
+
+	private final Map<ExtensionContext.Namespace, ExtensionContext.Store> stores = new ConcurrentHashMap<>();
+
+	private final ExtensionContext extensionContext;
+
+	private final AnnotatedElementContext elementContext;
+
+	BenchmarkContexts(Map<String, String> configurationParameters) {
+		this(configurationParameters, Object.class);
+	}
+
+	BenchmarkContexts(Map<String, String> configurationParameters, AnnotatedElement annotatedElement) {
+		this.configurationParameters = Map.copyOf(configurationParameters);
+		this.annotatedElement = annotatedElement;
+		this.extensionContext = proxy(ExtensionContext.class, this::handleExtensionContext);
+		this.elementContext = proxy(AnnotatedElementContext.class, this::handleElementContext);
+	}
+
+	ExtensionContext extensionContext() {
+		return extensionContext;
+	}
+
+	AnnotatedElementContext elementContext() {
+		return elementContext;
+	}
+
+	private Object handleExtensionContext(Object proxy, Method method, Object[] args) throws Throwable {
+		return switch (method.getName()) {
+			case "getRoot" -> proxy;
+			case "getParent", "getTestMethod", "getTestClass", "getTestInstance", "getElement" -> Optional.empty();
+			case "getUniqueId" -> "[engine:benchmark]";
+			case "getConfigurationParameter" -> getConfigurationParameter(args);
+			case "getStore" -> stores.computeIfAbsent((ExtensionContext.Namespace) args[args.length - 1],
+					namespace -> proxy(ExtensionContext.Store.class, (storeProxy, storeMethod,
+							storeArgs) -> handleStore(namespace, storeProxy, storeMethod, storeArgs)));
+			case "publishReportEntry" -> null;
+			default -> unsupported(proxy, method, args);
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private Optional<?> getConfigurationParameter(Object[] args) {
+		Optional<String> value = Optional.ofNullable(configurationParameters.get((String) args[0]));
+		return args.length == 1 ? value : value.map((Function<String, ?>) args[1]);
+	}
+
+	private Object handleElementContext(Object proxy, Method method, Object[] args) throws Throwable {
+		return "getAnnotatedElement".equals(method.getName()) ? annotatedElement : unsupported(proxy, method, args);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object handleStore(ExtensionContext.Namespace namespace, Object proxy, Method method, Object[] args)
+			throws Throwable {
+		if (method.isDefault()) {
+			return InvocationHandler.invokeDefault(proxy, method, args);
+		}
+		List<Object> key = List.of(namespace, args[0]);
+		return switch (method.getName()) {
+			case "get" -> values.get(key);
+			case "put" -> values.put(key, args[1]);
+			case "remove" -> values.remove(key);
+			case "computeIfAbsent", "getOrComputeIfAbsent" ->
+				values.computeIfAbsent(key, __ -> ((Function<Object, ?>) args[1]).apply(args[0]));
+			default -> unsupported(proxy, method, args);
+		};
+	}
+
+	@SuppressWarnings("ReferenceEquality")
+	private static Object unsupported(Object proxy, Method method, Object[] args) throws Throwable {
+		if (method.isDefault()) {
+			return InvocationHandler.invokeDefault(proxy, method, args);
+		}
+		if (method.getDeclaringClass() == Object.class) {
+			return switch (method.getName()) {
+				case "equals" -> proxy == args[0];
+				case "hashCode" -> System.identityHashCode(proxy);
+				default -> proxy.getClass().getName();
+			};
+		}
+		throw new UnsupportedOperationException(method.toString());
+	}
+
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+	}
+
+	void close() throws Exception {
+		List<Object> closeables;
+		synchronized (values) {
+			closeables = new ArrayList<>(values.values());
+			values.clear();
+		}
+		Collections.reverse(closeables);
+		for (Object value : closeables) {
+			if (value instanceof AutoCloseable closeable) {
+				closeable.close();
+			}
+		}
+	}
+
+}
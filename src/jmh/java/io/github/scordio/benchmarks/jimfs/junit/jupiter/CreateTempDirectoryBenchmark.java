@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.benchmarks.jimfs.junit.jupiter;
+
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDir;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.testkit.engine.EngineExecutionResults;
+import org.junit.platform.testkit.engine.EngineTestKit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.DEFAULT_CONFIGURATION_PARAMETER_NAME;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.DEFAULT_SCOPE_PARAMETER_NAME;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+/**
+ * Measures the overhead of injecting a {@link JimfsTempDir} into a test method.
+ *
+ * <p>
+ * Each invocation executes a repeated test through the Jupiter engine. The per-injection
+ * overhead is the difference between {@link #injection()} and {@link #baseline()}. With
+ * the {@code ENGINE} scope, the file system creation is paid only once, isolating the
+ * cost of resolving the configuration and creating the directory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+@OperationsPerInvocation(CreateTempDirectoryBenchmark.REPETITIONS)
+public class CreateTempDirectoryBenchmark {
+
+	static final int REPETITIONS = 100;
+
+	@Param({ "FOR_CURRENT_PLATFORM", "OS_X", "UNIX", "WINDOWS" })
+	public String configuration;
+
+	@Param({ "TEMP_DIRECTORY", "ENGINE" })
+	public String scope;
+
+	private LauncherDiscoveryRequest baselineRequest;
+
+	private LauncherDiscoveryRequest injectionRequest;
+
+	@Setup
+	public void setUp() {
+		baselineRequest = createRequest(BaselineTestCase.class);
+		injectionRequest = createRequest(InjectionTestCase.class);
+	}
+
+	private LauncherDiscoveryRequest createRequest(Class<?> testClass) {
+		return request().selectors(selectClass(testClass))
+			.configurationParameter(DEFAULT_CONFIGURATION_PARAMETER_NAME, configuration)
+			.configurationParameter(DEFAULT_SCOPE_PARAMETER_NAME, scope)
+			.build();
+	}
+
+	@Benchmark
+	public EngineExecutionResults baseline() {
+		return EngineTestKit.execute("junit-jupiter", baselineRequest);
+	}
+
+	@Benchmark
+	public EngineExecutionResults injection() {
+		return EngineTestKit.execute("junit-jupiter", injectionRequest);
+	}
+
+	static class BaselineTestCase {
+
+		@RepeatedTest(REPETITIONS)
+		void test() {
+		}
+
+	}
+
+	static class InjectionTestCase {
+
+		@RepeatedTest(REPETITIONS)
+		void test(@JimfsTempDir Path tempDir) {
+		}
+
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.benchmarks.jimfs.junit.jupiter;
+
+import org.junit.jupiter.api.io.TempDirFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the latency of walking a directory tree in a temporary directory.
+ *
+ * <p>
+ * The tree has two levels of {@code width} directories each, and {@code width} files in
+ * every leaf directory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectoryWalkBenchmark extends TempDirState {
+
+	@Param({ "10" })
+	public int width;
+
+	private TempDirFactory tempDirFactory;
+
+	private Path tempDir;
+
+	@Setup
+	public void setUp() throws Exception {
+		openContexts();
+		tempDirFactory = newFactory();
+		tempDir = createTempDirectory(tempDirFactory);
+		for (int i = 0; i < width; i++) {
+			for (int j = 0; j < width; j++) {
+				Path dir = Files.createDirectories(tempDir.resolve("dir-" + i).resolve("dir-" + j));
+				for (int k = 0; k < width; k++) {
+					Files.createFile(dir.resolve("file-" + k));
+				}
+			}
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		deleteTempDirectory(tempDir, tempDirFactory);
+		closeContexts();
+	}
+
+	@Benchmark
+	public long walk() throws Exception {
+		try (Stream<Path> paths = Files.walk(tempDir)) {
+			return paths.count();
+		}
+	}
+
+}
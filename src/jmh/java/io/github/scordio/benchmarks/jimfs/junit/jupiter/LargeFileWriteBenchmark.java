@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.benchmarks.jimfs.junit.jupiter;
+
+import org.junit.jupiter.api.io.TempDirFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of writing a large file sequentially in a temporary directory,
+ * deleting it afterwards.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeFileWriteBenchmark extends TempDirState {
+
+	private static final byte[] CHUNK = new byte[64 * 1024];
+
+	@Param({ "16" })
+	public int sizeInMegabytes;
+
+	private TempDirFactory tempDirFactory;
+
+	private Path file;
+
+	@Setup
+	public void setUp() throws Exception {
+		openContexts();
+		tempDirFactory = newFactory();
+		file = createTempDirectory(tempDirFactory).resolve("file.bin");
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		deleteTempDirectory(file.getParent(), tempDirFactory);
+		closeContexts();
+	}
+
+	@Benchmark
+	public void writeAndDelete() throws Exception {
+		long chunks = sizeInMegabytes * 1024L * 1024L / CHUNK.length;
+		try (OutputStream outputStream = Files.newOutputStream(file)) {
+			for (long i = 0; i < chunks; i++) {
+				outputStream.write(CHUNK);
+			}
+		}
+		Files.delete(file);
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.benchmarks.jimfs.junit.jupiter;
+
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDir;
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDirFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Configuration.OS_X;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Configuration.UNIX;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Configuration.WINDOWS;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.PathEquality.CANONICAL;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.PathNormalization.CASE_FOLD_ASCII;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.PathNormalization.NFC;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.PathNormalization.NONE;
+
+/**
+ * Measures the latency of looking up a file at the bottom of a deep directory tree,
+ * depending on the path normalization settings.
+ *
+ * <p>
+ * Each {@code setting} is the name of a field of {@link Settings}, whose
+ * {@link JimfsTempDir} annotation configures the temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathLookupBenchmark {
+
+	@Param({ "unix", "unixCaseInsensitive", "windows", "windowsCaseSensitive", "osX", "osXWithoutNormalization" })
+	public String setting;
+
+	@Param({ "32" })
+	public int depth;
+
+	private BenchmarkContexts contexts;
+
+	private JimfsTempDirFactory tempDirFactory;
+
+	private Path tempDir;
+
+	private String file;
+
+	@Setup
+	public void setUp() throws Exception {
+		contexts = new BenchmarkContexts(Map.of(), Settings.class.getDeclaredField(setting));
+		tempDirFactory = new JimfsTempDirFactory();
+		tempDir = tempDirFactory.createTempDirectory(contexts.elementContext(), contexts.extensionContext());
+
+		Path dir = tempDir;
+		for (int i = 0; i < depth; i++) {
+			dir = dir.resolve("Directory-" + i);
+		}
+		Files.createDirectories(dir);
+		file = tempDir.relativize(Files.createFile(dir.resolve("File"))).toString();
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		TempDirState.deleteTempDirectory(tempDir, tempDirFactory);
+		contexts.close();
+	}
+
+	@Benchmark
+	public boolean lookup() {
+		return Files.isRegularFile(tempDir.resolve(file));
+	}
+
+	static class Settings {
+
+		@JimfsTempDir(UNIX)
+		Path unix;
+
+		@JimfsTempDir(value = UNIX, nameCanonicalNormalization = { NFC, CASE_FOLD_ASCII }, pathEquality = CANONICAL)
+		Path unixCaseInsensitive;
+
+		@JimfsTempDir(WINDOWS)
+		Path windows;
+
+		@JimfsTempDir(value = WINDOWS, nameCanonicalNormalization = NONE)
+		Path windowsCaseSensitive;
+
+		@JimfsTempDir(OS_X)
+		Path osX;
+
+		@JimfsTempDir(value = OS_X, nameDisplayNormalization = NONE, nameCanonicalNormalization = NONE)
+		Path osXWithoutNormalization;
+
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.benchmarks.jimfs.junit.jupiter;
+
+import org.junit.jupiter.api.io.TempDirFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of creating, reading and deleting a small file in a temporary
+ * directory.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmallFilesBenchmark extends TempDirState {
+
+	private static final byte[] CONTENT = new byte[1024];
+
+	private TempDirFactory tempDirFactory;
+
+	private Path file;
+
+	@Setup
+	public void setUp() throws Exception {
+		openContexts();
+		tempDirFactory = newFactory();
+		file = createTempDirectory(tempDirFactory).resolve("file.bin");
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		deleteTempDirectory(file.getParent(), tempDirFactory);
+		closeContexts();
+	}
+
+	@Benchmark
+	public byte[] createReadDelete() throws Exception {
+		Files.write(file, CONTENT);
+		byte[] content = Files.readAllBytes(file);
+		Files.delete(file);
+		return content;
+	}
+
+}
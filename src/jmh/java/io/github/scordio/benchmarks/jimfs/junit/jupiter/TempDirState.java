@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.benchmarks.jimfs.junit.jupiter;
+
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDir;
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDirFactory;
+import org.junit.jupiter.api.io.TempDirFactory;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+/**
+ * Base state providing temporary directories created by the factory under benchmark.
+ *
+ * <p>
+ * {@code DISK} selects the default JUnit factory, based on the default file system,
+ * while the other values select {@link JimfsTempDirFactory} with the corresponding
+ * {@link JimfsTempDir.Configuration Configuration}.
+ */
+@State(Scope.Benchmark)
+public abstract class TempDirState {
+
+	@Param({ "DISK", "FOR_CURRENT_PLATFORM", "OS_X", "UNIX", "WINDOWS" })
+	public String factory;
+
+	private BenchmarkContexts contexts;
+
+	protected void openContexts() {
+		contexts = new BenchmarkContexts(
+				"DISK".equals(factory) ? Map.of() : Map.of(JimfsTempDir.DEFAULT_CONFIGURATION_PARAMETER_NAME, factory));
+	}
+
+	protected void closeContexts() throws Exception {
+		contexts.close();
+	}
+
+	protected TempDirFactory newFactory() {
+		return "DISK".equals(factory) ? TempDirFactory.Standard.INSTANCE : new JimfsTempDirFactory();
+	}
+
+	protected Path createTempDirectory(TempDirFactory tempDirFactory) throws Exception {
+		return tempDirFactory.createTempDirectory(contexts.elementContext(), contexts.extensionContext());
+	}
+
+	protected static void deleteTempDirectory(Path tempDir, TempDirFactory tempDirFactory) throws IOException {
+		deleteRecursively(tempDir);
+		tempDirFactory.close();
+	}
+
+	protected static void deleteRecursively(Path path) throws IOException {
+		Files.walkFileTree(path, new SimpleFileVisitor<>() {
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException exception) throws IOException {
+				if (exception != null) {
+					throw exception;
+				}
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+
+		});
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes resources in batches on a background daemon thread.
+ *
+ * <p>
+ * Resources are queued in a bounded queue, so that submitting a resource blocks while the
+ * queue is full, preventing unclosed resources from piling up when they are submitted
+ * faster than they can be closed. Closing the closer waits for all the pending resources
+ * to be closed and rethrows any failure that occurred in the meantime.
+ */
+final class AsyncCloser implements AutoCloseable {
+
+	private static final long POLL_TIMEOUT_MILLIS = 100;
+
+	private final BlockingQueue<Closeable> pending;
+
+	private final int batchSize;
+
+	private final ExecutorService executor;
+
+	private final Queue<IOException> failures = new ConcurrentLinkedQueue<>();
+
+	private volatile boolean closed;
+
+	AsyncCloser(int queueSize, int batchSize) {
+		if (queueSize < 1) {
+			throw new IllegalArgumentException("Queue size must be positive: " + queueSize);
+		}
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+		}
+		this.pending = new ArrayBlockingQueue<>(queueSize);
+		this.batchSize = batchSize;
+		this.executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "jimfs-tempdir-closer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.execute(this::drain);
+	}
+
+	void submit(Closeable closeable) throws IOException {
+		if (closed) {
+			closeable.close();
+			return;
+		}
+
+		try {
+			pending.put(closeable);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			closeable.close();
+			return;
+		}
+
+		if (closed) {
+			closePending();
+		}
+	}
+
+	private void drain() {
+		List<Closeable> batch = new ArrayList<>(batchSize);
+		while (!closed || !pending.isEmpty()) {
+			try {
+				Closeable first = pending.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+			}
+			catch (InterruptedException ex) {
+				return;
+			}
+			pending.drainTo(batch, batchSize - 1);
+			for (Closeable closeable : batch) {
+				closeQuietly(closeable);
+			}
+			batch.clear();
+		}
+	}
+
+	private void closePending() {
+		for (Closeable closeable = pending.poll(); closeable != null; closeable = pending.poll()) {
+			closeQuietly(closeable);
+		}
+	}
+
+	private void closeQuietly(Closeable closeable) {
+		try {
+			closeable.close();
+		}
+		catch (IOException ex) {
+			failures.add(ex);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		executor.shutdown();
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			executor.shutdownNow();
+		}
+		closePending();
+
+		@Nullable IOException failure = null;
+		for (IOException ex = failures.poll(); ex != null; ex = failures.poll()) {
+			if (failure == null) {
+				failure = ex;
+			}
+			else {
+				failure.addSuppressed(ex);
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Values of the configuration parameters supported by {@link JimfsTempDirFactory}.
+ *
+ * <p>
+ * As configuration parameters cannot change during an engine execution, they are parsed
+ * once and the resulting instance is shared via the root {@link ExtensionContext}.
+ *
+ * @param configuration the default configuration preset, never
+ * {@link JimfsTempDir.Configuration#DEFAULT}
+ * @param blockSize the default block size, or {@link ResolvedConfiguration#UNSET}
+ * @param maxSize the default maximum size, or {@link ResolvedConfiguration#UNSET}
+ * @param maxCacheSize the default maximum cache size, or
+ * {@link ResolvedConfiguration#UNSET}
+ * @param attributeViews the default attribute views, or an empty set
+ * @param watchServicePollingInterval the default polling interval of the watch services,
+ * or {@link ResolvedConfiguration#UNSET}
+ * @param scope the default scope, never {@link JimfsTempDir.Scope#DEFAULT}
+ * @param poolingEnabled whether pooling is enabled
+ * @param poolingMaxSize the maximum number of idle file systems per configuration
+ * @param footprintReportEnabled whether the footprint of temporary directories is
+ * reported
+ * @param footprintThreshold the maximum footprint of temporary directories, or
+ * {@link ResolvedConfiguration#UNSET}
+ * @param footprintThresholdMode how temporary directories exceeding the footprint
+ * threshold are handled
+ * @param asyncCloseEnabled whether file systems are closed asynchronously
+ * @param asyncCloseQueueSize the maximum number of file systems waiting to be closed
+ * asynchronously
+ * @param asyncCloseBatchSize the maximum number of file systems closed asynchronously in
+ * a single batch
+ * @param lazyEnabled whether all the temporary directories are lazy
+ * @param instrumentationEnabled whether all the temporary directories are instrumented
+ * @param smallIoDetectionEnabled whether small I/O operations are detected
+ * @param smallIoThreshold the operation size below which operations are small
+ * @param smallIoThresholdMode how channels performing small I/O operations are handled
+ * @param leakDetectionEnabled whether leaked channels and streams are detected
+ * @param leakDetectionMode how leaked channels and streams are handled
+ * @param fileEventsEnabled whether file operations are recorded as Java Flight Recorder
+ * events
+ * @param retentionMaxSize the maximum memory held by retained temporary directories
+ * @param retentionOverflowMode how retained temporary directories exceeding the maximum
+ * are evicted
+ * @param retentionArchiveDirectory the directory where retained temporary directories are
+ * archived
+ */
+record ConfigurationParameters(JimfsTempDir.Configuration configuration, int blockSize, long maxSize, long maxCacheSize,
+		Set<String> attributeViews, long watchServicePollingInterval, JimfsTempDir.Scope scope, boolean poolingEnabled,
+		int poolingMaxSize, boolean footprintReportEnabled, long footprintThreshold,
+		ThresholdMode footprintThresholdMode, boolean asyncCloseEnabled, int asyncCloseQueueSize,
+		int asyncCloseBatchSize, boolean lazyEnabled, boolean instrumentationEnabled, boolean smallIoDetectionEnabled,
+		long smallIoThreshold, ThresholdMode smallIoThresholdMode, boolean leakDetectionEnabled,
+		ThresholdMode leakDetectionMode, boolean fileEventsEnabled, long retentionMaxSize,
+		RetentionOverflowMode retentionOverflowMode, Path retentionArchiveDirectory) {
+
+	static ConfigurationParameters parse(ExtensionContext extensionContext) {
+		JimfsTempDir.Configuration configuration = extensionContext
+			.getConfigurationParameter(JimfsTempDir.DEFAULT_CONFIGURATION_PARAMETER_NAME,
+					transform(JimfsTempDir.Configuration.class))
+			.filter(value -> JimfsTempDir.Configuration.DEFAULT != value)
+			.orElse(JimfsTempDir.Configuration.FOR_CURRENT_PLATFORM);
+
+		int blockSize = extensionContext
+			.getConfigurationParameter(JimfsTempDir.DEFAULT_BLOCK_SIZE_PARAMETER_NAME,
+					value -> Integer.parseInt(value.trim()))
+			.filter(value -> value > 0)
+			.orElse(ResolvedConfiguration.UNSET);
+
+		long maxSize = extensionContext
+			.getConfigurationParameter(JimfsTempDir.DEFAULT_MAX_SIZE_PARAMETER_NAME,
+					value -> Long.parseLong(value.trim()))
+			.filter(value -> value > 0)
+			.orElse((long) ResolvedConfiguration.UNSET);
+
+		long maxCacheSize = extensionContext
+			.getConfigurationParameter(JimfsTempDir.DEFAULT_MAX_CACHE_SIZE_PARAMETER_NAME,
+					value -> Long.parseLong(value.trim()))
+			.filter(value -> value >= 0)
+			.orElse((long) ResolvedConfiguration.UNSET);
+
+		Set<String> attributeViews = extensionContext
+			.getConfigurationParameter(JimfsTempDir.DEFAULT_ATTRIBUTE_VIEWS_PARAMETER_NAME,
+					ConfigurationParameters::parseAttributeViews)
+			.orElse(Set.of());
+
+		long watchServicePollingInterval = extensionContext
+			.getConfigurationParameter(JimfsTempDir.DEFAULT_WATCH_SERVICE_POLLING_INTERVAL_PARAMETER_NAME,
+					value -> Long.parseLong(value.trim()))
+			.orElse((long) ResolvedConfiguration.UNSET);
+
+		JimfsTempDir.Scope scope = extensionContext
+			.getConfigurationParameter(JimfsTempDir.DEFAULT_SCOPE_PARAMETER_NAME, transform(JimfsTempDir.Scope.class))
+			.filter(value -> JimfsTempDir.Scope.DEFAULT != value)
+			.orElse(JimfsTempDir.Scope.TEMP_DIRECTORY);
+
+		boolean poolingEnabled = extensionContext
+			.getConfigurationParameter(JimfsTempDir.POOLING_ENABLED_PARAMETER_NAME,
+					value -> Boolean.parseBoolean(value.trim()))
+			.orElse(false);
+
+		int poolingMaxSize = extensionContext
+			.getConfigurationParameter(JimfsTempDir.POOLING_MAX_SIZE_PARAMETER_NAME,
+					value -> Integer.parseInt(value.trim()))
+			.orElseGet(() -> Runtime.getRuntime().availableProcessors());
+
+		boolean footprintReportEnabled = extensionContext
+			.getConfigurationParameter(JimfsTempDir.FOOTPRINT_REPORT_ENABLED_PARAMETER_NAME,
+					value -> Boolean.parseBoolean(value.trim()))
+			.orElse(false);
+
+		long footprintThreshold = extensionContext
+			.getConfigurationParameter(JimfsTempDir.FOOTPRINT_THRESHOLD_PARAMETER_NAME,
+					value -> Long.parseLong(value.trim()))
+			.orElse((long) ResolvedConfiguration.UNSET);
+
+		ThresholdMode footprintThresholdMode = extensionContext
+			.getConfigurationParameter(JimfsTempDir.FOOTPRINT_THRESHOLD_MODE_PARAMETER_NAME,
+					transform(ThresholdMode.class))
+			.orElse(ThresholdMode.WARN);
+
+		boolean asyncCloseEnabled = extensionContext
+			.getConfigurationParameter(JimfsTempDir.ASYNC_CLOSE_ENABLED_PARAMETER_NAME,
+					value -> Boolean.parseBoolean(value.trim()))
+			.orElse(false);
+
+		int asyncCloseQueueSize = extensionContext
+			.getConfigurationParameter(JimfsTempDir.ASYNC_CLOSE_QUEUE_SIZE_PARAMETER_NAME,
+					value -> Integer.parseInt(value.trim()))
+			.orElse(64);
+
+		int asyncCloseBatchSize = extensionContext
+			.getConfigurationParameter(JimfsTempDir.ASYNC_CLOSE_BATCH_SIZE_PARAMETER_NAME,
+					value -> Integer.parseInt(value.trim()))
+			.orElse(16);
+
+		boolean lazyEnabled = extensionContext
+			.getConfigurationParameter(JimfsTempDir.LAZY_ENABLED_PARAMETER_NAME,
+					value -> Boolean.parseBoolean(value.trim()))
+			.orElse(false);
+
+		boolean instrumentationEnabled = extensionContext
+			.getConfigurationParameter(JimfsTempDir.INSTRUMENTATION_ENABLED_PARAMETER_NAME,
+					value -> Boolean.parseBoolean(value.trim()))
+			.orElse(false);
+
+		boolean smallIoDetectionEnabled = extensionContext
+			.getConfigurationParameter(JimfsTempDir.SMALL_IO_DETECTION_ENABLED_PARAMETER_NAME,
+					value -> Boolean.parseBoolean(value.trim()))
+			.orElse(false);
+
+		long smallIoThreshold = extensionContext
+			.getConfigurationParameter(JimfsTempDir.SMALL_IO_THRESHOLD_PARAMETER_NAME,
+					value -> Long.parseLong(value.trim()))
+			.orElse(512L);
+
+		ThresholdMode smallIoThresholdMode = extensionContext
+			.getConfigurationParameter(JimfsTempDir.SMALL_IO_THRESHOLD_MODE_PARAMETER_NAME,
+					transform(ThresholdMode.class))
+			.orElse(ThresholdMode.WARN);
+
+		boolean leakDetectionEnabled = extensionContext
+			.getConfigurationParameter(JimfsTempDir.LEAK_DETECTION_ENABLED_PARAMETER_NAME,
+					value -> Boolean.parseBoolean(value.trim()))
+			.orElse(false);
+
+		ThresholdMode leakDetectionMode = extensionContext
+			.getConfigurationParameter(JimfsTempDir.LEAK_DETECTION_MODE_PARAMETER_NAME, transform(ThresholdMode.class))
+			.orElse(ThresholdMode.WARN);
+
+		boolean fileEventsEnabled = extensionContext
+			.getConfigurationParameter(JimfsTempDir.FILE_EVENTS_ENABLED_PARAMETER_NAME,
+					value -> Boolean.parseBoolean(value.trim()))
+			.orElse(false);
+
+		long retentionMaxSize = extensionContext
+			.getConfigurationParameter(JimfsTempDir.RETENTION_MAX_SIZE_PARAMETER_NAME,
+					value -> Long.parseLong(value.trim()))
+			.orElse(64L * 1024 * 1024);
+
+		RetentionOverflowMode retentionOverflowMode = extensionContext
+			.getConfigurationParameter(JimfsTempDir.RETENTION_OVERFLOW_MODE_PARAMETER_NAME,
+					transform(RetentionOverflowMode.class))
+			.orElse(RetentionOverflowMode.DISCARD);
+
+		Path retentionArchiveDirectory = extensionContext
+			.getConfigurationParameter(JimfsTempDir.RETENTION_ARCHIVE_DIRECTORY_PARAMETER_NAME,
+					value -> Path.of(value.trim()))
+			.orElseGet(() -> Path.of(System.getProperty("java.io.tmpdir")));
+
+		return new ConfigurationParameters(configuration, blockSize, maxSize, maxCacheSize, attributeViews,
+				watchServicePollingInterval, scope, poolingEnabled, poolingMaxSize, footprintReportEnabled,
+				footprintThreshold, footprintThresholdMode, asyncCloseEnabled, asyncCloseQueueSize, asyncCloseBatchSize,
+				lazyEnabled, instrumentationEnabled, smallIoDetectionEnabled, smallIoThreshold, smallIoThresholdMode,
+				leakDetectionEnabled, leakDetectionMode, fileEventsEnabled, retentionMaxSize, retentionOverflowMode,
+				retentionArchiveDirectory);
+	}
+
+	static Set<String> parseAttributeViews(String... values) {
+		Set<String> attributeViews = new LinkedHashSet<>();
+		for (String value : values) {
+			for (String view : value.split(",", -1)) {
+				if (!view.isBlank()) {
+					attributeViews.add(view.trim());
+				}
+			}
+		}
+		return Collections.unmodifiableSet(attributeViews);
+	}
+
+	private static <E extends Enum<E>> Function<String, E> transform(Class<E> enumType) {
+		return value -> Enum.valueOf(enumType, value.trim().toUpperCase(Locale.ROOT));
+	}
+
+	/**
+	 * Handling of resources exceeding a threshold or otherwise misused.
+	 */
+	enum ThresholdMode {
+
+		/**
+		 * Log a warning.
+		 */
+		WARN,
+		/**
+		 * Fail the test owning the resource.
+		 */
+		FAIL
+
+	}
+
+	/**
+	 * Handling of retained temporary directories exceeding the maximum memory.
+	 */
+	enum RetentionOverflowMode {
+
+		/**
+		 * Close the file system, logging a warning.
+		 */
+		DISCARD,
+		/**
+		 * Write the content to a ZIP archive, then close the file system.
+		 */
+		ARCHIVE
+
+	}
+
+}
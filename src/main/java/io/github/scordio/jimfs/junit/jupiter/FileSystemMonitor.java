@@ -0,0 +1,212 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.lang.management.ManagementFactory;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * {@link JimfsTempDirFactoryMXBean} implementation tracking the file systems created by
+ * all the {@link JimfsTempDirFactory} instances.
+ *
+ * <p>
+ * File systems are tracked from their creation until they are closed, excluding the ones
+ * released to a pool. File systems closed by other means are detected whenever the stored
+ * bytes are measured.
+ *
+ * <p>
+ * The stored bytes of each file system are measured when the MBean is read and right
+ * before the file system is closed, adjusting the total by the difference with the last
+ * measurement, so that the peak accounts for the final size of each file system without
+ * measuring all the live ones.
+ */
+final class FileSystemMonitor implements JimfsTempDirFactoryMXBean {
+
+	private static final System.Logger LOGGER = System.getLogger(FileSystemMonitor.class.getName());
+
+	static final FileSystemMonitor INSTANCE = register(new FileSystemMonitor());
+
+	private final Map<FileSystem, Tracked> fileSystems = new ConcurrentHashMap<>();
+
+	private volatile long firstCreationTime;
+
+	private volatile boolean started;
+
+	private final LongAdder created = new LongAdder();
+
+	private final LongAdder closed = new LongAdder();
+
+	private final LongAdder lifetimes = new LongAdder();
+
+	private final AtomicLong storedBytes = new AtomicLong();
+
+	private final AtomicLong peakStoredBytes = new AtomicLong();
+
+	private FileSystemMonitor() {
+	}
+
+	private static FileSystemMonitor register(FileSystemMonitor monitor) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, new ObjectName(OBJECT_NAME));
+		}
+		catch (JMException | SecurityException ex) {
+			// e.g., already registered by another class loader
+			LOGGER.log(Level.DEBUG, "Failed to register " + OBJECT_NAME, ex);
+		}
+		return monitor;
+	}
+
+	void created(FileSystem fileSystem) {
+		long creationTime = System.nanoTime();
+		if (!started) {
+			synchronized (this) {
+				if (!started) {
+					firstCreationTime = creationTime;
+					started = true;
+				}
+			}
+		}
+		fileSystems.put(fileSystem, new Tracked(creationTime));
+		created.increment();
+	}
+
+	void closing(FileSystem fileSystem) {
+		Tracked tracked = fileSystems.get(fileSystem);
+		if (tracked != null) {
+			measure(fileSystem, tracked);
+			closed(fileSystem);
+		}
+	}
+
+	private void closed(FileSystem fileSystem) {
+		Tracked tracked = fileSystems.remove(fileSystem);
+		if (tracked != null) {
+			storedBytes.addAndGet(-tracked.storedBytes.getAndSet(0));
+			closed.increment();
+			lifetimes.add(System.nanoTime() - tracked.creationTime);
+		}
+	}
+
+	private void measure(FileSystem fileSystem, Tracked tracked) {
+		long bytes = getStoredBytes(fileSystem);
+		long total = storedBytes.addAndGet(bytes - tracked.storedBytes.getAndSet(bytes));
+		peakStoredBytes.accumulateAndGet(total, Math::max);
+	}
+
+	private long sample() {
+		for (Map.Entry<FileSystem, Tracked> entry : fileSystems.entrySet()) {
+			if (entry.getKey().isOpen()) {
+				measure(entry.getKey(), entry.getValue());
+			}
+			else {
+				closed(entry.getKey());
+			}
+		}
+		return storedBytes.get();
+	}
+
+	/**
+	 * Return the number of bytes held by the given file system, i.e., its allocated
+	 * blocks and its cache of free blocks.
+	 * @param fileSystem the file system
+	 * @return the number of bytes held, or {@code 0} if the file system is closed
+	 */
+	static long getStoredBytes(FileSystem fileSystem) {
+		try {
+			long storedBytes = 0;
+			for (FileStore fileStore : fileSystem.getFileStores()) {
+				storedBytes += fileStore.getTotalSpace() - fileStore.getUnallocatedSpace();
+			}
+			return storedBytes + JimfsInternals.getCachedBytes(fileSystem).orElse(0);
+		}
+		catch (IOException | ClosedFileSystemException ex) {
+			return 0;
+		}
+	}
+
+	@Override
+	public long getLiveFileSystems() {
+		return fileSystems.size();
+	}
+
+	@Override
+	public long getCreatedFileSystems() {
+		return created.sum();
+	}
+
+	@Override
+	public long getClosedFileSystems() {
+		return closed.sum();
+	}
+
+	@Override
+	public long getStoredBytes() {
+		return sample();
+	}
+
+	@Override
+	public long getPeakStoredBytes() {
+		return peakStoredBytes.get();
+	}
+
+	@Override
+	public double getCreationRate() {
+		return perSecond(created.sum());
+	}
+
+	@Override
+	public double getCloseRate() {
+		return perSecond(closed.sum());
+	}
+
+	@Override
+	public double getAverageLifetime() {
+		long count = closed.sum();
+		return count == 0 ? 0 : (double) lifetimes.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	private double perSecond(long count) {
+		if (!started) {
+			return 0;
+		}
+		long elapsed = System.nanoTime() - firstCreationTime;
+		return elapsed <= 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+	}
+
+	private static final class Tracked {
+
+		private final long creationTime;
+
+		private final AtomicLong storedBytes = new AtomicLong();
+
+		private Tracked(long creationTime) {
+			this.creationTime = creationTime;
+		}
+
+	}
+
+}
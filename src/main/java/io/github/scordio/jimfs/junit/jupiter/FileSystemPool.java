@@ -0,0 +1,248 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of in-memory file systems, keyed by their {@link ResolvedConfiguration}.
+ *
+ * <p>
+ * The entries of each file system, together with their attributes, are recorded right
+ * after its creation. When a file system is released, every entry that is not part of
+ * such baseline is deleted and the attributes of the baseline entries are restored before
+ * the file system is made available again, so that no state leaks between consecutive
+ * usages. File systems that still have open resources, e.g., channels or watch services,
+ * that cannot be wiped, or that exceed the pool capacity, are closed instead.
+ *
+ * <p>
+ * Unless configured explicitly, pooled file systems are created without a cache of free
+ * blocks, so that the memory of deleted files is not held while idle.
+ */
+final class FileSystemPool implements AutoCloseable {
+
+	private final int maxSize;
+
+	private final Map<ResolvedConfiguration, Deque<FileSystem>> idleFileSystems = new ConcurrentHashMap<>();
+
+	private static final List<String> ATTRIBUTE_VIEWS = List.of("basic", "owner", "posix", "dos", "acl", "user");
+
+	private final Map<FileSystem, Baseline> baselines = new ConcurrentHashMap<>();
+
+	private volatile boolean closed;
+
+	FileSystemPool(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("Pool max size must not be negative: " + maxSize);
+		}
+		this.maxSize = maxSize;
+	}
+
+	FileSystem acquire(ResolvedConfiguration configuration, Supplier<FileSystem> fileSystemSupplier)
+			throws IOException {
+		Deque<FileSystem> idle = getIdleFileSystems(configuration);
+
+		FileSystem fileSystem;
+		synchronized (idle) {
+			fileSystem = idle.pollFirst();
+		}
+
+		if (fileSystem == null) {
+			fileSystem = fileSystemSupplier.get();
+			Map<Path, Map<String, Object>> entries = new HashMap<>();
+			for (Path entry : listEntries(fileSystem)) {
+				entries.put(entry, readAttributes(entry));
+			}
+			baselines.put(fileSystem, new Baseline(configuration, entries));
+		}
+
+		return fileSystem;
+	}
+
+	void release(FileSystem fileSystem) throws IOException {
+		Baseline baseline = baselines.get(fileSystem);
+
+		if (closed || baseline == null || !fileSystem.isOpen() || !isIdle(fileSystem)
+				|| !wipe(fileSystem, baseline.entries())) {
+			discard(fileSystem);
+			return;
+		}
+
+		Deque<FileSystem> idle = getIdleFileSystems(baseline.configuration());
+		boolean pooled;
+		synchronized (idle) {
+			pooled = idle.size() < maxSize && idle.offerFirst(fileSystem);
+		}
+
+		if (!pooled) {
+			discard(fileSystem);
+		}
+	}
+
+	private Deque<FileSystem> getIdleFileSystems(ResolvedConfiguration configuration) {
+		return idleFileSystems.computeIfAbsent(configuration, key -> new ArrayDeque<>());
+	}
+
+	private void discard(FileSystem fileSystem) throws IOException {
+		baselines.remove(fileSystem);
+		FileSystemMonitor.INSTANCE.closing(fileSystem);
+		fileSystem.close();
+	}
+
+	private static boolean isIdle(FileSystem fileSystem) {
+		return JimfsInternals.getOpenResources(fileSystem).orElse(-1) == 0;
+	}
+
+	private static Set<Path> listEntries(FileSystem fileSystem) throws IOException {
+		Set<Path> entries = new HashSet<>();
+		for (Path root : fileSystem.getRootDirectories()) {
+			try (var paths = Files.walk(root)) {
+				paths.forEach(entries::add);
+			}
+		}
+		return entries;
+	}
+
+	private static Map<String, Object> readAttributes(Path path) throws IOException {
+		Map<String, Object> attributes = new HashMap<>();
+		Set<String> supportedViews = path.getFileSystem().supportedFileAttributeViews();
+		for (String view : ATTRIBUTE_VIEWS) {
+			if (supportedViews.contains(view)) {
+				Files.readAttributes(path, view + ":*", LinkOption.NOFOLLOW_LINKS)
+					.forEach((name, value) -> attributes.put(view + ":" + name, value));
+			}
+		}
+		return attributes;
+	}
+
+	private static void restoreAttributes(Path path, Map<String, Object> baseline) throws IOException {
+		Map<String, Object> attributes = readAttributes(path);
+		for (Map.Entry<String, Object> attribute : baseline.entrySet()) {
+			if (!Objects.deepEquals(attribute.getValue(), attributes.get(attribute.getKey()))) {
+				Files.setAttribute(path, attribute.getKey(), attribute.getValue(), LinkOption.NOFOLLOW_LINKS);
+			}
+		}
+		for (String attribute : attributes.keySet()) {
+			if (!baseline.containsKey(attribute)) {
+				UserDefinedFileAttributeView view = attribute.startsWith("user:") ? Files.getFileAttributeView(path,
+						UserDefinedFileAttributeView.class, LinkOption.NOFOLLOW_LINKS) : null;
+				if (view == null) {
+					throw new IOException("Cannot remove attribute " + attribute + " of " + path);
+				}
+				view.delete(attribute.substring("user:".length()));
+			}
+		}
+	}
+
+	private static boolean wipe(FileSystem fileSystem, Map<Path, Map<String, Object>> baseline) {
+		try {
+			for (Path root : fileSystem.getRootDirectories()) {
+				Files.walkFileTree(root, new SimpleFileVisitor<>() {
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+						deleteIfNotInBaseline(file);
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult postVisitDirectory(Path dir, @Nullable IOException exception)
+							throws IOException {
+						if (exception != null) {
+							throw exception;
+						}
+						deleteIfNotInBaseline(dir);
+						return FileVisitResult.CONTINUE;
+					}
+
+					private void deleteIfNotInBaseline(Path path) throws IOException {
+						if (!baseline.containsKey(path)) {
+							Files.delete(path);
+						}
+					}
+
+				});
+			}
+			if (!listEntries(fileSystem).equals(baseline.keySet())) {
+				return false;
+			}
+			for (Map.Entry<Path, Map<String, Object>> entry : baseline.entrySet()) {
+				restoreAttributes(entry.getKey(), entry.getValue());
+			}
+			return true;
+		}
+		catch (IOException | RuntimeException ex) {
+			return false;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+
+		List<FileSystem> fileSystems = new ArrayList<>();
+		for (Deque<FileSystem> idle : idleFileSystems.values()) {
+			synchronized (idle) {
+				fileSystems.addAll(idle);
+				idle.clear();
+			}
+		}
+
+		@Nullable IOException failure = null;
+		for (FileSystem fileSystem : fileSystems) {
+			try {
+				discard(fileSystem);
+			}
+			catch (IOException ex) {
+				if (failure == null) {
+					failure = ex;
+				}
+				else {
+					failure.addSuppressed(ex);
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private record Baseline(ResolvedConfiguration configuration, Map<Path, Map<String, Object>> entries) {
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.FileSystem;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Registry of the in-memory file systems opened during an engine execution.
+ *
+ * <p>
+ * File systems are only weakly referenced, so that the registry does not retain the ones
+ * already closed. Once the engine execution completes, the file systems that are still
+ * open, e.g., because the factory that created them was never closed, are closed and
+ * reported with a warning, so that they do not retain memory for the rest of the JVM
+ * lifetime.
+ */
+final class FileSystemRegistry implements AutoCloseable {
+
+	private static final System.Logger LOGGER = System.getLogger(FileSystemRegistry.class.getName());
+
+	private final Set<FileSystem> fileSystems = Collections.newSetFromMap(new WeakHashMap<>());
+
+	synchronized void register(FileSystem fileSystem) {
+		fileSystems.add(fileSystem);
+	}
+
+	@Override
+	public void close() throws IOException {
+		List<FileSystem> orphans = new ArrayList<>();
+		synchronized (this) {
+			for (FileSystem fileSystem : fileSystems) {
+				if (fileSystem.isOpen()) {
+					orphans.add(fileSystem);
+				}
+			}
+			fileSystems.clear();
+		}
+
+		if (orphans.isEmpty()) {
+			return;
+		}
+
+		StringBuilder message = new StringBuilder("Closing ").append(orphans.size())
+			.append(" file system(s) left open at the end of the engine execution:");
+		for (FileSystem fileSystem : orphans) {
+			message.append(System.lineSeparator())
+				.append("  ")
+				.append(fileSystem.getRootDirectories().iterator().next().toUri());
+		}
+		LOGGER.log(Level.WARNING, message.toString());
+
+		@Nullable IOException failure = null;
+		for (FileSystem fileSystem : orphans) {
+			try {
+				FileSystemMonitor.INSTANCE.closing(fileSystem);
+				fileSystem.close();
+			}
+			catch (IOException ex) {
+				if (failure == null) {
+					failure = ex;
+				}
+				else {
+					failure.addSuppressed(ex);
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of a fixture directory tree, to be replicated into temporary
+ * directories.
+ *
+ * <p>
+ * Entries are listed in pre-order and their paths are kept as name segments, so that the
+ * template can be replicated into file systems with different path separators.
+ *
+ * @param entries the entries of the fixture, parents first
+ */
+record FixtureTemplate(List<Entry> entries) {
+
+	static final String CLASSPATH_PREFIX = "classpath:";
+
+	static FixtureTemplate load(String location, ClassLoader classLoader) throws IOException {
+		if (!location.startsWith(CLASSPATH_PREFIX)) {
+			Path root = Path.of(location);
+			if (!Files.isDirectory(root)) {
+				throw new ExtensionConfigurationException("Fixture directory not found: " + location);
+			}
+			return read(root);
+		}
+
+		String name = location.substring(CLASSPATH_PREFIX.length()).replaceFirst("^/+", "");
+		URL url = classLoader.getResource(name);
+		if (url == null) {
+			throw new ExtensionConfigurationException("Fixture directory not found on the classpath: " + name);
+		}
+
+		URI uri;
+		try {
+			uri = url.toURI();
+		}
+		catch (URISyntaxException ex) {
+			throw new IOException("Invalid fixture location: " + url, ex);
+		}
+
+		if (!"jar".equals(uri.getScheme())) {
+			return read(Path.of(uri));
+		}
+
+		try (FileSystem fileSystem = FileSystems.newFileSystem(uri, Map.of())) {
+			return read(fileSystem.provider().getPath(uri));
+		}
+		catch (FileSystemAlreadyExistsException ex) {
+			return read(Path.of(uri));
+		}
+	}
+
+	private static FixtureTemplate read(Path root) throws IOException {
+		if (!Files.isDirectory(root)) {
+			throw new ExtensionConfigurationException("Fixture is not a directory: " + root.toUri());
+		}
+
+		List<Entry> entries = new ArrayList<>();
+		try (Stream<Path> paths = Files.walk(root)) {
+			for (Path path : paths.skip(1).toList()) {
+				List<String> segments = new ArrayList<>();
+				for (Path segment : root.relativize(path)) {
+					segments.add(segment.toString());
+				}
+				entries
+					.add(new Entry(List.copyOf(segments), Files.isDirectory(path) ? null : Files.readAllBytes(path)));
+			}
+		}
+		return new FixtureTemplate(List.copyOf(entries));
+	}
+
+	void copyTo(Path target) throws IOException {
+		for (Entry entry : entries) {
+			Path path = target;
+			for (String segment : entry.segments()) {
+				path = path.resolve(segment);
+			}
+
+			byte[] content = entry.content();
+			if (content == null) {
+				Files.createDirectory(path);
+			}
+			else {
+				Files.write(path, content);
+			}
+		}
+	}
+
+	/**
+	 * Entry of a fixture.
+	 *
+	 * @param segments the name segments of the path, relative to the fixture root
+	 * @param content the file content, or {@code null} for directories
+	 */
+	@SuppressWarnings("ArrayRecordComponent")
+	record Entry(List<String> segments, byte @Nullable [] content) {
+	}
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import java.nio.file.FileSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events emitted by {@link JimfsTempDirFactory}, to attribute the
+ * time spent in the in-memory file systems when profiling tests.
+ */
+final class FlightRecorderEvents {
+
+	private static final String PREFIX = "io.github.scordio.jimfs.junit.jupiter.";
+
+	private FlightRecorderEvents() {
+	}
+
+	/**
+	 * Return the identifier of an in-memory file system recorded by the events, i.e., the
+	 * URI of its first root directory, which is unique for each Jimfs file system.
+	 * @param fileSystem the in-memory file system
+	 * @return the identifier of the file system
+	 */
+	static String getId(FileSystem fileSystem) {
+		return fileSystem.getRootDirectories().iterator().next().toUri().toString();
+	}
+
+	static void fileRead(String path, long bytes) {
+		FileRead event = new FileRead();
+		if (event.shouldCommit()) {
+			event.path = path;
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+
+	static void fileWritten(String path, long bytes) {
+		FileWrite event = new FileWrite();
+		if (event.shouldCommit()) {
+			event.path = path;
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+
+	@Name(PREFIX + "FileSystemCreation")
+	@Label("File System Creation")
+	@Category({ "Jimfs", "File System" })
+	@Description("Creation of an in-memory file system")
+	@StackTrace(false)
+	static final class FileSystemCreation extends Event {
+
+		@Label("Test")
+		@Description("The unique identifier of the test owning the file system")
+		String test = "";
+
+		@Label("File System")
+		@Description("The URI of the root directory of the file system")
+		String fileSystem = "";
+
+		@Label("Configuration")
+		String configuration = "";
+
+		@Label("Block Size")
+		@Description("The block size, or -1 for the one of the configuration")
+		@DataAmount
+		int blockSize;
+
+		@Label("Max Size")
+		@Description("The maximum size, or -1 for the one of the configuration")
+		@DataAmount
+		long maxSize;
+
+		@Label("Max Cache Size")
+		@Description("The maximum cache size, or -1 for the one of the configuration")
+		@DataAmount
+		long maxCacheSize;
+
+		@Label("Attribute Views")
+		String attributeViews = "";
+
+		@Label("Watch Service Polling Interval")
+		@Description("The polling interval of the watch services, or -1 for the one of the configuration")
+		@Timespan(Timespan.MILLISECONDS)
+		long watchServicePollingInterval;
+
+		void set(ResolvedConfiguration configuration) {
+			this.configuration = configuration.preset().name();
+			this.blockSize = configuration.blockSize();
+			this.maxSize = configuration.maxSize();
+			this.maxCacheSize = configuration.maxCacheSize();
+			this.attributeViews = String.join(",", configuration.attributeViews());
+			this.watchServicePollingInterval = configuration.watchServicePollingInterval();
+		}
+
+	}
+
+	@Name(PREFIX + "TempDirectoryCreation")
+	@Label("Temporary Directory Creation")
+	@Category({ "Jimfs", "File System" })
+	@Description("Creation of a temporary directory, including its file system and fixture")
+	@StackTrace(false)
+	static final class TempDirectoryCreation extends Event {
+
+		@Label("Test")
+		@Description("The unique identifier of the test owning the temporary directory")
+		String test = "";
+
+		@Label("Path")
+		String path = "";
+
+		@Label("File System")
+		@Description("The URI of the root directory of the file system, or empty if created lazily")
+		String fileSystem = "";
+
+		@Label("Scope")
+		String scope = "";
+
+		@Label("Lazy")
+		boolean lazy;
+
+	}
+
+	@Name(PREFIX + "FileSystemClose")
+	@Label("File System Close")
+	@Category({ "Jimfs", "File System" })
+	@Description("Closing of an in-memory file system, or its release to the pool")
+	@StackTrace(false)
+	static final class FileSystemClose extends Event {
+
+		@Label("Test")
+		@Description("The unique identifier of the test owning the file system")
+		String test = "";
+
+		@Label("File System")
+		@Description("The URI of the root directory of the file system")
+		String fileSystem = "";
+
+		@Label("Pooled")
+		@Description("Whether the file system is released to the pool instead of being closed")
+		boolean pooled;
+
+	}
+
+	@Name(PREFIX + "FileRead")
+	@Label("File Read")
+	@Category({ "Jimfs", "File System" })
+	@Description("Read operation on a channel or stream of a temporary directory")
+	static final class FileRead extends Event {
+
+		@Label("Path")
+		String path = "";
+
+		@Label("Bytes Read")
+		@DataAmount
+		long bytes;
+
+	}
+
+	@Name(PREFIX + "FileWrite")
+	@Label("File Write")
+	@Category({ "Jimfs", "File System" })
+	@Description("Write operation on a channel or stream of a temporary directory")
+	static final class FileWrite extends Event {
+
+		@Label("Path")
+		String path = "";
+
+		@Label("Bytes Written")
+		@DataAmount
+		long bytes;
+
+	}
+
+}
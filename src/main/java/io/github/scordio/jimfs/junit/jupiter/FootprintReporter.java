@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.file.FileStore;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Measures the memory footprint of a temporary directory, publishing it as a report entry
+ * and checking it against the configured threshold.
+ *
+ * <p>
+ * Reporters are registered in the {@link ExtensionContext} where the temporary directory
+ * is created, and run by {@link JimfsTempDirExtension} once the test owning such context
+ * completes, before the temporary directory is deleted. If the extension is not
+ * registered, a warning is logged once such context is closed.
+ *
+ * @param tempDir the temporary directory to measure
+ * @param blockSize the block size of the file system
+ * @param exclusive whether the file system is dedicated to the temporary directory
+ * @param parameters the configuration parameters
+ */
+record FootprintReporter(Path tempDir, int blockSize, boolean exclusive, ConfigurationParameters parameters) {
+
+	static final int DEFAULT_BLOCK_SIZE = 8192;
+
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace
+		.create(FootprintReporter.class);
+
+	private static final System.Logger LOGGER = System.getLogger(FootprintReporter.class.getName());
+
+	static boolean isEnabled(ConfigurationParameters parameters) {
+		return parameters.footprintReportEnabled() || parameters.footprintThreshold() != ResolvedConfiguration.UNSET;
+	}
+
+	static void register(ExtensionContext extensionContext, FootprintReporter reporter) {
+		getReporters(extensionContext).add(reporter);
+	}
+
+	static void reportAll(ExtensionContext extensionContext) throws IOException {
+		List<FootprintReporter> reporters = getReporters(extensionContext);
+
+		@Nullable AssertionFailedError failure = null;
+		for (FootprintReporter reporter : reporters) {
+			try {
+				reporter.report(extensionContext);
+			}
+			catch (AssertionFailedError ex) {
+				if (failure == null) {
+					failure = ex;
+				}
+				else {
+					failure.addSuppressed(ex);
+				}
+			}
+		}
+		reporters.clear();
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private static List<FootprintReporter> getReporters(ExtensionContext extensionContext) {
+		return extensionContext.getStore(NAMESPACE)
+			.computeIfAbsent(extensionContext.getUniqueId(), key -> new Reporters(extensionContext.getDisplayName()),
+					Reporters.class);
+	}
+
+	private void report(ExtensionContext extensionContext) throws IOException {
+		if (tempDir.getFileSystem() instanceof LazyFileSystem lazyFileSystem && !lazyFileSystem.isMaterialized()) {
+			return;
+		}
+		if (!tempDir.getFileSystem().isOpen() || !Files.isDirectory(tempDir)) {
+			return;
+		}
+
+		Footprint footprint = Footprint.measure(tempDir);
+
+		if (parameters.footprintReportEnabled()) {
+			Map<String, String> entry = new LinkedHashMap<>();
+			entry.put("jimfs.tempdir", tempDir.toUri().toString());
+			entry.put("jimfs.tempdir.files", String.valueOf(footprint.files()));
+			entry.put("jimfs.tempdir.bytes", String.valueOf(footprint.bytes()));
+			// the file store of a shared file system also counts the blocks of other
+			// directories
+			if (exclusive) {
+				entry.put("jimfs.tempdir.blocks", String.valueOf(countAllocatedBlocks(tempDir, blockSize)));
+			}
+			extensionContext.publishReportEntry(entry);
+		}
+
+		long threshold = parameters.footprintThreshold();
+		if (threshold != ResolvedConfiguration.UNSET && footprint.bytes() > threshold) {
+			String message = "Temporary directory " + tempDir.toUri() + " in " + extensionContext.getDisplayName()
+					+ " exceeds the footprint threshold: " + footprint.bytes() + " bytes > " + threshold + " bytes";
+			if (parameters.footprintThresholdMode() == ConfigurationParameters.ThresholdMode.FAIL) {
+				throw new AssertionFailedError(message);
+			}
+			LOGGER.log(Level.WARNING, message);
+		}
+	}
+
+	private static long countAllocatedBlocks(Path directory, int blockSize) throws IOException {
+		FileStore fileStore = Files.getFileStore(directory);
+		return (fileStore.getTotalSpace() - fileStore.getUnallocatedSpace()) / blockSize;
+	}
+
+	/**
+	 * Memory footprint of a directory.
+	 *
+	 * @param files the number of regular files
+	 * @param bytes the total size of the regular files
+	 */
+	record Footprint(long files, long bytes) {
+
+		static Footprint measure(Path directory) throws IOException {
+			long[] totals = new long[2];
+			Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+					if (attributes.isRegularFile()) {
+						totals[0]++;
+						totals[1] += attributes.size();
+					}
+					return FileVisitResult.CONTINUE;
+				}
+
+			});
+			return new Footprint(totals[0], totals[1]);
+		}
+
+	}
+
+	/**
+	 * Reporters registered in an {@link ExtensionContext}, warning on close about the
+	 * ones that never ran because {@link JimfsTempDirExtension} is not registered.
+	 */
+	@SuppressWarnings("serial")
+	private static final class Reporters extends CopyOnWriteArrayList<FootprintReporter> implements AutoCloseable {
+
+		private final String displayName;
+
+		private Reporters(String displayName) {
+			this.displayName = displayName;
+		}
+
+		@Override
+		public void close() {
+			if (!isEmpty()) {
+				LOGGER.log(Level.WARNING,
+						"Footprint reporting is enabled, but the temporary directories of " + displayName
+								+ " were not measured as " + JimfsTempDirExtension.class.getSimpleName()
+								+ " is not registered: register it with @ExtendWith(JimfsTempDirExtension.class)");
+				clear();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link FileSystem} forwarding to a target Jimfs file system.
+ *
+ * <p>
+ * Paths are parsed and manipulated by a path file system, sharing the configuration of
+ * the target file system, and are translated to paths of the target file system only when
+ * accessing it. By default, the path file system is the target file system itself, while
+ * subclasses can provide the target file system on demand.
+ */
+class ForwardingFileSystem extends FileSystem {
+
+	private final ForwardingFileSystemProvider provider;
+
+	private final FileSystem pathFileSystem;
+
+	ForwardingFileSystem(ForwardingFileSystemProvider provider, FileSystem pathFileSystem) {
+		this.provider = provider;
+		this.pathFileSystem = pathFileSystem;
+	}
+
+	FileSystem pathFileSystem() {
+		return pathFileSystem;
+	}
+
+	FileSystem target() throws IOException {
+		return pathFileSystem;
+	}
+
+	@SuppressWarnings("ReferenceEquality")
+	Path unwrap(ForwardingPath path) throws IOException {
+		FileSystem target = target();
+		Path delegate = path.delegate();
+		return target == pathFileSystem ? delegate : target.getPath(delegate.toString());
+	}
+
+	@SuppressWarnings("ReferenceEquality")
+	ForwardingPath wrap(Path path) {
+		return new ForwardingPath(this,
+				path.getFileSystem() == pathFileSystem ? path : pathFileSystem.getPath(path.toString()));
+	}
+
+	/**
+	 * Return whether the given file system underlies this one, i.e., whether it is the
+	 * path file system, the target file system, or a file system underlying them.
+	 * @param fileSystem the file system to check
+	 * @return whether the file system underlies this one
+	 */
+	@SuppressWarnings("ReferenceEquality")
+	boolean isUnderlying(FileSystem fileSystem) {
+		return fileSystem == pathFileSystem || (pathFileSystem instanceof ForwardingFileSystem forwardingFileSystem
+				&& forwardingFileSystem.isUnderlying(fileSystem));
+	}
+
+	/**
+	 * Return the given path as a forwarding path, wrapping the paths of the
+	 * {@linkplain #isUnderlying(FileSystem) underlying} file systems, e.g., the ones
+	 * obtained via {@link Path#toUri()} or a watch key of the target file system.
+	 * @param path the path to adopt
+	 * @return the forwarding path
+	 * @throws ProviderMismatchException if the path belongs to an unrelated file system
+	 */
+	ForwardingPath adopt(Path path) {
+		if (path instanceof ForwardingPath forwardingPath) {
+			return forwardingPath;
+		}
+		if (isUnderlying(path.getFileSystem())) {
+			return wrap(path);
+		}
+		throw new ProviderMismatchException("Path not associated with a Jimfs temporary directory: " + path);
+	}
+
+	Path toRealPath(ForwardingPath path, LinkOption... options) throws IOException {
+		return wrap(unwrap(path).toRealPath(options));
+	}
+
+	@Override
+	public ForwardingFileSystemProvider provider() {
+		return provider;
+	}
+
+	@Override
+	public void close() throws IOException {
+		pathFileSystem.close();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return pathFileSystem.isOpen();
+	}
+
+	@Override
+	public boolean isReadOnly() {
+		return pathFileSystem.isReadOnly();
+	}
+
+	@Override
+	public String getSeparator() {
+		return pathFileSystem.getSeparator();
+	}
+
+	@Override
+	public Iterable<Path> getRootDirectories() {
+		List<Path> rootDirectories = new ArrayList<>();
+		for (Path rootDirectory : pathFileSystem.getRootDirectories()) {
+			rootDirectories.add(new ForwardingPath(this, rootDirectory));
+		}
+		return rootDirectories;
+	}
+
+	@Override
+	public Iterable<FileStore> getFileStores() {
+		try {
+			return target().getFileStores();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public Set<String> supportedFileAttributeViews() {
+		return pathFileSystem.supportedFileAttributeViews();
+	}
+
+	@Override
+	public Path getPath(String first, String... more) {
+		return new ForwardingPath(this, pathFileSystem.getPath(first, more));
+	}
+
+	@Override
+	public PathMatcher getPathMatcher(String syntaxAndPattern) {
+		PathMatcher matcher = pathFileSystem.getPathMatcher(syntaxAndPattern);
+		return path -> path instanceof ForwardingPath forwardingPath && matcher.matches(forwardingPath.delegate());
+	}
+
+	@Override
+	public UserPrincipalLookupService getUserPrincipalLookupService() {
+		return pathFileSystem.getUserPrincipalLookupService();
+	}
+
+	@Override
+	public WatchService newWatchService() throws IOException {
+		return new ForwardingWatchService(this, target().newWatchService());
+	}
+
+}
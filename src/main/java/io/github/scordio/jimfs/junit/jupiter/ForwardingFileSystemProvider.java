@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessMode;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link FileSystemProvider} of the {@link ForwardingFileSystem} instances, forwarding
+ * each operation to the provider of the target file system.
+ *
+ * <p>
+ * This provider is not installed, so it can only be reached via the paths of its file
+ * systems.
+ */
+class ForwardingFileSystemProvider extends FileSystemProvider {
+
+	static Path unwrap(Path path) throws IOException {
+		ForwardingPath forwardingPath = ForwardingPath.check(path);
+		return forwardingPath.getFileSystem().unwrap(forwardingPath);
+	}
+
+	private static Path unwrapOther(Path path, Path other) throws IOException {
+		ForwardingPath forwardingPath = ForwardingPath.check(path).getFileSystem().adopt(other);
+		return forwardingPath.getFileSystem().unwrap(forwardingPath);
+	}
+
+	private static FileSystemProvider provider(Path path) {
+		return path.getFileSystem().provider();
+	}
+
+	@Override
+	public String getScheme() {
+		return "jimfs";
+	}
+
+	@Override
+	public FileSystem newFileSystem(URI uri, Map<String, ?> env) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public FileSystem getFileSystem(URI uri) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Path getPath(URI uri) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs)
+			throws IOException {
+		Path target = unwrap(path);
+		return provider(target).newByteChannel(target, options, attrs);
+	}
+
+	@Override
+	public FileChannel newFileChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs)
+			throws IOException {
+		Path target = unwrap(path);
+		return provider(target).newFileChannel(target, options, attrs);
+	}
+
+	@Override
+	public AsynchronousFileChannel newAsynchronousFileChannel(Path path, Set<? extends OpenOption> options,
+			@Nullable ExecutorService executor, FileAttribute<?>... attrs) throws IOException {
+		Path target = unwrap(path);
+		return provider(target).newAsynchronousFileChannel(target, options, executor, attrs);
+	}
+
+	@Override
+	public InputStream newInputStream(Path path, OpenOption... options) throws IOException {
+		Path target = unwrap(path);
+		return provider(target).newInputStream(target, options);
+	}
+
+	@Override
+	public OutputStream newOutputStream(Path path, OpenOption... options) throws IOException {
+		Path target = unwrap(path);
+		return provider(target).newOutputStream(target, options);
+	}
+
+	@Override
+	public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter)
+			throws IOException {
+		ForwardingFileSystem fileSystem = ForwardingPath.check(dir).getFileSystem();
+		Path target = unwrap(dir);
+		DirectoryStream<Path> stream = provider(target).newDirectoryStream(target,
+				entry -> filter.accept(fileSystem.wrap(entry)));
+		return new DirectoryStream<>() {
+
+			@Override
+			public Iterator<Path> iterator() {
+				Iterator<Path> iterator = stream.iterator();
+				return new Iterator<>() {
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Path next() {
+						return fileSystem.wrap(iterator.next());
+					}
+
+				};
+			}
+
+			@Override
+			public void close() throws IOException {
+				stream.close();
+			}
+
+		};
+	}
+
+	@Override
+	public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
+		Path target = unwrap(dir);
+		provider(target).createDirectory(target, attrs);
+	}
+
+	@Override
+	public void createSymbolicLink(Path link, Path target, FileAttribute<?>... attrs) throws IOException {
+		Path targetLink = unwrap(link);
+		provider(targetLink).createSymbolicLink(targetLink, unwrapOther(link, target), attrs);
+	}
+
+	@Override
+	public void createLink(Path link, Path existing) throws IOException {
+		Path targetLink = unwrap(link);
+		provider(targetLink).createLink(targetLink, unwrapOther(link, existing));
+	}
+
+	@Override
+	public void delete(Path path) throws IOException {
+		Path target = unwrap(path);
+		provider(target).delete(target);
+	}
+
+	@Override
+	public Path readSymbolicLink(Path link) throws IOException {
+		ForwardingFileSystem fileSystem = ForwardingPath.check(link).getFileSystem();
+		Path target = unwrap(link);
+		return fileSystem.wrap(provider(target).readSymbolicLink(target));
+	}
+
+	@Override
+	public void copy(Path source, Path target, CopyOption... options) throws IOException {
+		Path targetSource = unwrap(source);
+		provider(targetSource).copy(targetSource, unwrapOther(source, target), options);
+	}
+
+	@Override
+	public void move(Path source, Path target, CopyOption... options) throws IOException {
+		Path targetSource = unwrap(source);
+		provider(targetSource).move(targetSource, unwrapOther(source, target), options);
+	}
+
+	@Override
+	public boolean isSameFile(Path path, Path path2) throws IOException {
+		if (path.equals(path2)) {
+			return true;
+		}
+		if (!(path2 instanceof ForwardingPath)) {
+			return false;
+		}
+		Path target = unwrap(path);
+		return provider(target).isSameFile(target, unwrap(path2));
+	}
+
+	@Override
+	public boolean isHidden(Path path) throws IOException {
+		Path target = unwrap(path);
+		return provider(target).isHidden(target);
+	}
+
+	@Override
+	public FileStore getFileStore(Path path) throws IOException {
+		Path target = unwrap(path);
+		return provider(target).getFileStore(target);
+	}
+
+	@Override
+	public void checkAccess(Path path, AccessMode... modes) throws IOException {
+		Path target = unwrap(path);
+		provider(target).checkAccess(target, modes);
+	}
+
+	@Override
+	public <V extends FileAttributeView> @Nullable V getFileAttributeView(Path path, Class<V> type,
+			LinkOption... options) {
+		Path target;
+		try {
+			target = unwrap(path);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return provider(target).getFileAttributeView(target, type, options);
+	}
+
+	@Override
+	public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options)
+			throws IOException {
+		Path target = unwrap(path);
+		return provider(target).readAttributes(target, type, options);
+	}
+
+	@Override
+	public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options) throws IOException {
+		Path target = unwrap(path);
+		return provider(target).readAttributes(target, attributes, options);
+	}
+
+	@Override
+	public void setAttribute(Path path, String attribute, Object value, LinkOption... options) throws IOException {
+		Path target = unwrap(path);
+		provider(target).setAttribute(target, attribute, value, options);
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * {@link Path} of a {@link ForwardingFileSystem}, wrapping a path of the
+ * {@linkplain ForwardingFileSystem#pathFileSystem() path file system}.
+ *
+ * <p>
+ * Syntactic operations are performed on the wrapped path, while operations accessing the
+ * file system are performed on the corresponding path of the
+ * {@linkplain ForwardingFileSystem#target() target file system}.
+ *
+ * <p>
+ * The {@linkplain #toUri() URI} of a forwarding path is the one of the corresponding
+ * target path, so paths obtained from it belong to the target file system. Such paths are
+ * accepted wherever another path is expected, e.g., by {@link #resolve(Path)}.
+ */
+final class ForwardingPath implements Path {
+
+	private final ForwardingFileSystem fileSystem;
+
+	private final Path delegate;
+
+	ForwardingPath(ForwardingFileSystem fileSystem, Path delegate) {
+		this.fileSystem = fileSystem;
+		this.delegate = delegate;
+	}
+
+	static ForwardingPath check(Path path) {
+		if (path instanceof ForwardingPath forwardingPath) {
+			return forwardingPath;
+		}
+		throw new ProviderMismatchException("Path not associated with a Jimfs temporary directory: " + path);
+	}
+
+	Path delegate() {
+		return delegate;
+	}
+
+	private ForwardingPath wrap(Path path) {
+		return new ForwardingPath(fileSystem, path);
+	}
+
+	@SuppressWarnings("ReferenceEquality")
+	private boolean isSameFileSystem(ForwardingPath other) {
+		return fileSystem == other.fileSystem;
+	}
+
+	private @Nullable ForwardingPath wrapNullable(@Nullable Path path) {
+		return path != null ? wrap(path) : null;
+	}
+
+	@Override
+	public ForwardingFileSystem getFileSystem() {
+		return fileSystem;
+	}
+
+	@Override
+	public boolean isAbsolute() {
+		return delegate.isAbsolute();
+	}
+
+	@Override
+	public @Nullable Path getRoot() {
+		return wrapNullable(delegate.getRoot());
+	}
+
+	@Override
+	public @Nullable Path getFileName() {
+		return wrapNullable(delegate.getFileName());
+	}
+
+	@Override
+	public @Nullable Path getParent() {
+		return wrapNullable(delegate.getParent());
+	}
+
+	@Override
+	public int getNameCount() {
+		return delegate.getNameCount();
+	}
+
+	@Override
+	public Path getName(int index) {
+		return wrap(delegate.getName(index));
+	}
+
+	@Override
+	public Path subpath(int beginIndex, int endIndex) {
+		return wrap(delegate.subpath(beginIndex, endIndex));
+	}
+
+	@Override
+	public boolean startsWith(Path other) {
+		return other instanceof ForwardingPath path && isSameFileSystem(path) && delegate.startsWith(path.delegate);
+	}
+
+	@Override
+	public boolean endsWith(Path other) {
+		return other instanceof ForwardingPath path && isSameFileSystem(path) && delegate.endsWith(path.delegate);
+	}
+
+	@Override
+	public Path normalize() {
+		return wrap(delegate.normalize());
+	}
+
+	@Override
+	public Path resolve(Path other) {
+		return wrap(delegate.resolve(fileSystem.adopt(other).delegate));
+	}
+
+	@Override
+	public Path relativize(Path other) {
+		return wrap(delegate.relativize(fileSystem.adopt(other).delegate));
+	}
+
+	@Override
+	public URI toUri() {
+		try {
+			return fileSystem.unwrap(this).toUri();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	@Override
+	public Path toAbsolutePath() {
+		return wrap(delegate.toAbsolutePath());
+	}
+
+	@Override
+	public Path toRealPath(LinkOption... options) throws IOException {
+		return fileSystem.toRealPath(this, options);
+	}
+
+	@Override
+	public WatchKey register(WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers)
+			throws IOException {
+		if (watcher instanceof ForwardingWatchService forwardingWatcher && forwardingWatcher.isWatching(fileSystem)) {
+			return forwardingWatcher.register(this, events, modifiers);
+		}
+		return fileSystem.unwrap(this).register(watcher, events, modifiers);
+	}
+
+	@Override
+	public int compareTo(Path other) {
+		if (!(other instanceof ForwardingPath) && !fileSystem.isUnderlying(other.getFileSystem())) {
+			throw new ClassCastException("Path not associated with a Jimfs temporary directory: " + other);
+		}
+		return delegate.compareTo(fileSystem.adopt(other).delegate);
+	}
+
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		return obj instanceof ForwardingPath path && isSameFileSystem(path) && delegate.equals(path.delegate);
+	}
+
+	@Override
+	public int hashCode() {
+		return delegate.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+}
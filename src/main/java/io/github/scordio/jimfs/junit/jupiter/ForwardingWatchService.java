@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.Watchable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WatchService} of a {@link ForwardingFileSystem}, forwarding to a watch service
+ * of the target file system.
+ *
+ * <p>
+ * Watch keys are wrapped so that their watchable and the context of their events are
+ * paths of the forwarding file system. Each key of the target watch service is always
+ * wrapped by the same instance, so that keys can be used as map keys.
+ */
+final class ForwardingWatchService implements WatchService {
+
+	private final ForwardingFileSystem fileSystem;
+
+	private final WatchService delegate;
+
+	private final Map<WatchKey, Key> keys = new ConcurrentHashMap<>();
+
+	ForwardingWatchService(ForwardingFileSystem fileSystem, WatchService delegate) {
+		this.fileSystem = fileSystem;
+		this.delegate = delegate;
+	}
+
+	@SuppressWarnings("ReferenceEquality")
+	boolean isWatching(ForwardingFileSystem fileSystem) {
+		return this.fileSystem == fileSystem;
+	}
+
+	WatchKey register(ForwardingPath path, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers)
+			throws IOException {
+		return wrap(fileSystem.unwrap(path).register(delegate, events, modifiers));
+	}
+
+	private @Nullable WatchKey wrapNullable(@Nullable WatchKey key) {
+		return key != null ? wrap(key) : null;
+	}
+
+	private WatchKey wrap(WatchKey key) {
+		return keys.computeIfAbsent(key, Key::new);
+	}
+
+	@Override
+	public @Nullable WatchKey poll() {
+		return wrapNullable(delegate.poll());
+	}
+
+	@Override
+	public @Nullable WatchKey poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return wrapNullable(delegate.poll(timeout, unit));
+	}
+
+	@Override
+	public WatchKey take() throws InterruptedException {
+		return wrap(delegate.take());
+	}
+
+	@Override
+	public void close() throws IOException {
+		keys.clear();
+		delegate.close();
+	}
+
+	private final class Key implements WatchKey {
+
+		private final WatchKey delegate;
+
+		private Key(WatchKey delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean isValid() {
+			return delegate.isValid();
+		}
+
+		@Override
+		public List<WatchEvent<?>> pollEvents() {
+			List<WatchEvent<?>> events = new ArrayList<>();
+			for (WatchEvent<?> event : delegate.pollEvents()) {
+				events.add(
+						event.context() instanceof Path context ? new Event<>(event, fileSystem.wrap(context)) : event);
+			}
+			return events;
+		}
+
+		@Override
+		public boolean reset() {
+			return delegate.reset();
+		}
+
+		@Override
+		public void cancel() {
+			delegate.cancel();
+			keys.remove(delegate);
+		}
+
+		@Override
+		public Watchable watchable() {
+			Watchable watchable = delegate.watchable();
+			return watchable instanceof Path path ? fileSystem.wrap(path) : watchable;
+		}
+
+	}
+
+	private static final class Event<T> implements WatchEvent<T> {
+
+		private final WatchEvent<T> delegate;
+
+		private final Path context;
+
+		private Event(WatchEvent<T> delegate, Path context) {
+			this.delegate = delegate;
+			this.context = context;
+		}
+
+		@Override
+		public WatchEvent.Kind<T> kind() {
+			return delegate.kind();
+		}
+
+		@Override
+		public int count() {
+			return delegate.count();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T context() {
+			return (T) context;
+		}
+
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link ForwardingFileSystem} counting the file operations performed via its paths.
+ *
+ * <p>
+ * Channels and streams are wrapped to count the read and write operations and the
+ * transferred bytes, except for asynchronous file channels, which are only counted when
+ * opened. Each write operation on a file opened with the {@link StandardOpenOption#SYNC
+ * SYNC} or {@link StandardOpenOption#DSYNC DSYNC} options also counts as a forced write.
+ * Directory streams are wrapped to track whether they are closed.
+ */
+final class InstrumentedFileSystem extends ForwardingFileSystem {
+
+	private final IoStatistics statistics;
+
+	InstrumentedFileSystem(FileSystem pathFileSystem, IoStatistics statistics) {
+		super(Provider.INSTANCE, pathFileSystem);
+		this.statistics = statistics;
+	}
+
+	IoStatistics statistics() {
+		return statistics;
+	}
+
+	private static final class Provider extends ForwardingFileSystemProvider {
+
+		private static final Provider INSTANCE = new Provider();
+
+		private static IoStatistics statistics(Path path) {
+			return ((InstrumentedFileSystem) ForwardingPath.check(path).getFileSystem()).statistics;
+		}
+
+		private static String describe(Path path) {
+			return path.toAbsolutePath().normalize().toString();
+		}
+
+		private static boolean isSync(Collection<? extends OpenOption> options) {
+			return options.contains(StandardOpenOption.SYNC) || options.contains(StandardOpenOption.DSYNC);
+		}
+
+		@Override
+		public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options,
+				FileAttribute<?>... attrs) throws IOException {
+			IoStatistics statistics = statistics(path);
+			SeekableByteChannel channel = super.newByteChannel(path, options, attrs);
+			IoStatistics.ChannelStatistics channelStatistics = statistics.opened("channel", describe(path),
+					isSync(options));
+			return ObservedChannels.observe(channel, channelStatistics);
+		}
+
+		@Override
+		public FileChannel newFileChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs)
+				throws IOException {
+			IoStatistics statistics = statistics(path);
+			FileChannel channel = super.newFileChannel(path, options, attrs);
+			return ObservedChannels.observe(channel, statistics.opened("channel", describe(path), isSync(options)));
+		}
+
+		@Override
+		public AsynchronousFileChannel newAsynchronousFileChannel(Path path, Set<? extends OpenOption> options,
+				@Nullable ExecutorService executor, FileAttribute<?>... attrs) throws IOException {
+			IoStatistics statistics = statistics(path);
+			AsynchronousFileChannel channel = super.newAsynchronousFileChannel(path, options, executor, attrs);
+			statistics.opened();
+			return channel;
+		}
+
+		@Override
+		public InputStream newInputStream(Path path, OpenOption... options) throws IOException {
+			IoStatistics statistics = statistics(path);
+			InputStream stream = super.newInputStream(path, options);
+			return ObservedChannels.observe(stream, statistics.opened("input stream", describe(path), false));
+		}
+
+		@Override
+		public OutputStream newOutputStream(Path path, OpenOption... options) throws IOException {
+			IoStatistics statistics = statistics(path);
+			OutputStream stream = super.newOutputStream(path, options);
+			return ObservedChannels.observe(stream,
+					statistics.opened("output stream", describe(path), isSync(Arrays.asList(options))));
+		}
+
+		@Override
+		public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter)
+				throws IOException {
+			IoStatistics statistics = statistics(dir);
+			DirectoryStream<Path> stream = super.newDirectoryStream(dir, filter);
+			return ObservedChannels.observe(stream, statistics.listed(describe(dir)));
+		}
+
+		@Override
+		public void checkAccess(Path path, AccessMode... modes) throws IOException {
+			statistics(path).attributesLookedUp();
+			super.checkAccess(path, modes);
+		}
+
+		@Override
+		public <V extends FileAttributeView> @Nullable V getFileAttributeView(Path path, Class<V> type,
+				LinkOption... options) {
+			statistics(path).attributesLookedUp();
+			return super.getFileAttributeView(path, type, options);
+		}
+
+		@Override
+		public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options)
+				throws IOException {
+			statistics(path).attributesLookedUp();
+			return super.readAttributes(path, type, options);
+		}
+
+		@Override
+		public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options)
+				throws IOException {
+			statistics(path).attributesLookedUp();
+			return super.readAttributes(path, attributes, options);
+		}
+
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum amount of file operations that a test may perform via its temporary directories
+ * created by {@link JimfsTempDirFactory}.
+ *
+ * <p>
+ * The file operations are counted as for {@link JimfsTempDir#instrumented() instrumented}
+ * temporary directories, summing up all the temporary directories created for the test.
+ * Once the test completes, {@link JimfsTempDirExtension} fails it if any limit is
+ * exceeded, reporting each counter together with its limit.
+ *
+ * <p>
+ * As Jimfs is deterministic, the counters do not depend on the execution environment,
+ * which makes the budget suitable as a regression gate for the I/O patterns of the code
+ * under test.
+ *
+ * <p>
+ * When declared on a test class, the budget applies to each test method, as well as to
+ * the class itself. The file operations performed via the temporary directories of the
+ * class, e.g., static fields, count towards the budget of the test method running at that
+ * time, and the remaining ones, e.g., from {@code @BeforeAll} methods, towards the budget
+ * of the class, checked once all its tests complete. Declarations on test methods take
+ * precedence. Negative limits are ignored.
+ *
+ * @since 1.1.0
+ */
+@Target({ ElementType.ANNOTATION_TYPE, ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@ExtendWith(JimfsTempDirExtension.class)
+@SuppressWarnings("exports")
+public @interface IoBudget {
+
+	/**
+	 * Maximum number of opened channels and streams.
+	 *
+	 * <p>
+	 * Defaults to no limit.
+	 * @return the maximum number of opened channels and streams
+	 */
+	long opens() default -1;
+
+	/**
+	 * Maximum number of write operations.
+	 *
+	 * <p>
+	 * Defaults to no limit.
+	 * @return the maximum number of write operations
+	 */
+	long writes() default -1;
+
+	/**
+	 * Maximum number of forced writes, i.e., calls to
+	 * {@link java.nio.channels.FileChannel#force(boolean)} and write operations on files
+	 * opened with the {@link java.nio.file.StandardOpenOption#SYNC SYNC} or
+	 * {@link java.nio.file.StandardOpenOption#DSYNC DSYNC} options.
+	 *
+	 * <p>
+	 * Defaults to no limit.
+	 * @return the maximum number of forced writes
+	 */
+	long forces() default -1;
+
+	/**
+	 * Maximum number of bytes written.
+	 *
+	 * <p>
+	 * Defaults to no limit.
+	 * @return the maximum number of bytes written
+	 */
+	long bytesWritten() default -1;
+
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.opentest4j.AssertionFailedError;
+
+import java.lang.System.Logger.Level;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Publishes the file operations performed via an instrumented temporary directory as a
+ * report entry, checks them against the {@link IoBudget} of the owning test, and flags
+ * the channels and streams performing small I/O operations, if their detection is
+ * enabled. If leak detection is enabled, the channels and streams still open when the
+ * test completes are reported together with the stack trace of their opening.
+ *
+ * <p>
+ * Reporters are registered in the {@link ExtensionContext} where the temporary directory
+ * is created, and run by {@link JimfsTempDirExtension} once the test owning such context
+ * completes, before the temporary directory is deleted. If the extension is not
+ * registered, a warning is logged once such context is closed.
+ *
+ * <p>
+ * The file operations performed via the temporary directories of a test class, e.g.,
+ * static fields, while one of its test methods runs are checked against the budget of
+ * that test method, and the remaining ones against the budget of the class once all its
+ * tests complete. With tests of the same class running concurrently, the operations
+ * performed via the temporary directories of the class are attributed to all of them.
+ *
+ * <p>
+ * Lazy temporary directories that were never materialized are not reported, as no file
+ * operation reached them.
+ */
+final class IoReporter {
+
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(IoReporter.class);
+
+	private static final String MARKS_KEY = "marks";
+
+	private static final System.Logger LOGGER = System.getLogger(IoReporter.class.getName());
+
+	// the temporary directory, as created before instrumentation
+	private final Path tempDir;
+
+	private final IoStatistics statistics;
+
+	private final boolean published;
+
+	private final ConfigurationParameters parameters;
+
+	// the budgeted counters already attributed to the test methods
+	private final AtomicLongArray attributed = new AtomicLongArray(4);
+
+	IoReporter(Path tempDir, IoStatistics statistics, boolean published, ConfigurationParameters parameters) {
+		this.tempDir = tempDir;
+		this.statistics = statistics;
+		this.published = published;
+		this.parameters = parameters;
+	}
+
+	static void register(ExtensionContext extensionContext, IoReporter reporter) {
+		getReporters(extensionContext).add(reporter);
+	}
+
+	static @Nullable IoBudget findBudget(ExtensionContext extensionContext) {
+		return extensionContext.getTestMethod()
+			.flatMap(method -> AnnotationSupport.findAnnotation(method, IoBudget.class))
+			.or(() -> extensionContext.getTestClass()
+				.flatMap(testClass -> AnnotationSupport.findAnnotation(testClass, IoBudget.class)))
+			.orElse(null);
+	}
+
+	/**
+	 * Record the budgeted counters of the temporary directories of the enclosing contexts
+	 * when a test starts, so that the operations performed until it completes can be
+	 * attributed to it.
+	 */
+	static void markAll(ExtensionContext extensionContext) {
+		Map<IoReporter, long[]> marks = new HashMap<>();
+		for (Optional<ExtensionContext> parent = extensionContext.getParent(); parent
+			.isPresent(); parent = parent.get().getParent()) {
+			for (IoReporter reporter : findReporters(parent.get())) {
+				marks.put(reporter, reporter.budgetedCounters());
+			}
+		}
+		extensionContext.getStore(NAMESPACE).put(MARKS_KEY, marks);
+	}
+
+	@SuppressWarnings("unchecked")
+	static void reportAll(ExtensionContext extensionContext) {
+		List<IoReporter> reporters = getReporters(extensionContext);
+
+		@Nullable AssertionFailedError failure = null;
+		long[] totals = new long[4];
+		for (IoReporter reporter : reporters) {
+			if (reporter.published) {
+				reporter.report(extensionContext);
+			}
+			try {
+				reporter.checkSmallIo(extensionContext);
+			}
+			catch (AssertionFailedError ex) {
+				failure = addFailure(failure, ex);
+			}
+			try {
+				reporter.checkLeaks(extensionContext);
+			}
+			catch (AssertionFailedError ex) {
+				failure = addFailure(failure, ex);
+			}
+			long[] counters = reporter.budgetedCounters();
+			for (int i = 0; i < totals.length; i++) {
+				totals[i] += counters[i] - reporter.attributed.get(i);
+			}
+		}
+		reporters.clear();
+
+		@Nullable Map<IoReporter, long[]> marks = extensionContext.getStore(NAMESPACE).remove(MARKS_KEY, Map.class);
+		if (marks != null) {
+			marks.forEach((reporter, mark) -> {
+				long[] counters = reporter.budgetedCounters();
+				for (int i = 0; i < totals.length; i++) {
+					totals[i] += counters[i] - mark[i];
+					reporter.attributed.addAndGet(i, counters[i] - mark[i]);
+				}
+			});
+		}
+
+		@Nullable IoBudget budget = findBudget(extensionContext);
+
+		if (budget != null) {
+			try {
+				checkBudget(extensionContext, budget, totals);
+			}
+			catch (AssertionFailedError ex) {
+				failure = addFailure(failure, ex);
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private static AssertionFailedError addFailure(@Nullable AssertionFailedError failure, AssertionFailedError ex) {
+		if (failure == null) {
+			return ex;
+		}
+		failure.addSuppressed(ex);
+		return failure;
+	}
+
+	private static void checkBudget(ExtensionContext extensionContext, IoBudget budget, long[] totals) {
+		long[] limits = { budget.opens(), budget.writes(), budget.forces(), budget.bytesWritten() };
+		String[] names = { "opens", "writes", "forces", "bytes written" };
+
+		boolean exceeded = false;
+		StringBuilder breakdown = new StringBuilder();
+		for (int i = 0; i < limits.length; i++) {
+			breakdown.append(System.lineSeparator()).append("  ").append(names[i]).append(": ").append(totals[i]);
+			if (limits[i] >= 0) {
+				breakdown.append(" (limit ").append(limits[i]).append(')');
+				if (totals[i] > limits[i]) {
+					breakdown.append(" EXCEEDED");
+					exceeded = true;
+				}
+			}
+		}
+
+		if (exceeded) {
+			throw new AssertionFailedError(
+					"I/O budget exceeded in " + extensionContext.getDisplayName() + ":" + breakdown);
+		}
+	}
+
+	private static List<IoReporter> getReporters(ExtensionContext extensionContext) {
+		return extensionContext.getStore(NAMESPACE)
+			.computeIfAbsent(extensionContext.getUniqueId(), key -> new Reporters(extensionContext.getDisplayName()),
+					Reporters.class);
+	}
+
+	private static List<IoReporter> findReporters(ExtensionContext extensionContext) {
+		@Nullable List<IoReporter> reporters = extensionContext.getStore(NAMESPACE)
+			.get(extensionContext.getUniqueId(), Reporters.class);
+		return reporters != null ? reporters : List.of();
+	}
+
+	private long[] budgetedCounters() {
+		return new long[] { statistics.opens(), statistics.writes(), statistics.forces(), statistics.bytesWritten() };
+	}
+
+	private void checkSmallIo(ExtensionContext extensionContext) {
+		List<IoStatistics.ChannelStatistics> channels = statistics.smallIoChannels();
+		if (channels.isEmpty()) {
+			return;
+		}
+
+		StringBuilder message = new StringBuilder("Small I/O operations in ").append(extensionContext.getDisplayName())
+			.append(", with median size below ")
+			.append(statistics.smallIoThreshold())
+			.append(" bytes:");
+		for (IoStatistics.ChannelStatistics channel : channels) {
+			message.append(System.lineSeparator())
+				.append("  ")
+				.append(channel.path())
+				.append(": ")
+				.append(channel.reads())
+				.append(" reads, ")
+				.append(channel.writes())
+				.append(" writes, median size ")
+				.append(describeBucket(channel.medianBucket()));
+		}
+
+		if (parameters.smallIoThresholdMode() == ConfigurationParameters.ThresholdMode.FAIL) {
+			throw new AssertionFailedError(message.toString());
+		}
+		LOGGER.log(Level.WARNING, message.toString());
+	}
+
+	private void checkLeaks(ExtensionContext extensionContext) {
+		List<IoStatistics.ChannelStatistics> channels = statistics.openChannels();
+		if (channels.isEmpty()) {
+			return;
+		}
+
+		StringBuilder message = new StringBuilder("Unclosed channels and streams in ")
+			.append(extensionContext.getDisplayName())
+			.append(':');
+		for (IoStatistics.ChannelStatistics channel : channels) {
+			message.append(System.lineSeparator())
+				.append("  ")
+				.append(channel.kind())
+				.append(" of ")
+				.append(channel.path());
+		}
+
+		if (parameters.leakDetectionMode() == ConfigurationParameters.ThresholdMode.FAIL) {
+			AssertionFailedError failure = new AssertionFailedError(message.toString());
+			for (IoStatistics.ChannelStatistics channel : channels) {
+				Throwable openingSite = channel.openingSite();
+				if (openingSite != null) {
+					failure.addSuppressed(openingSite);
+				}
+			}
+			throw failure;
+		}
+		LOGGER.log(Level.WARNING, message.toString());
+		for (IoStatistics.ChannelStatistics channel : channels) {
+			LOGGER.log(Level.WARNING, "Unclosed " + channel.kind() + " of " + channel.path(), channel.openingSite());
+		}
+	}
+
+	private static String describeBucket(int bucket) {
+		if (bucket <= 0) {
+			return "0 bytes";
+		}
+		long min = 1L << (bucket - 1);
+		long max = (1L << bucket) - 1;
+		return min == max ? min + (min == 1 ? " byte" : " bytes") : min + "-" + max + " bytes";
+	}
+
+	private void report(ExtensionContext extensionContext) {
+		if (tempDir.getFileSystem() instanceof LazyFileSystem lazyFileSystem && !lazyFileSystem.isMaterialized()) {
+			return;
+		}
+
+		Map<String, String> entry = new LinkedHashMap<>();
+		entry.put("jimfs.tempdir", tempDir.toUri().toString());
+		entry.put("jimfs.tempdir.io.opens", String.valueOf(statistics.opens()));
+		entry.put("jimfs.tempdir.io.reads", String.valueOf(statistics.reads()));
+		entry.put("jimfs.tempdir.io.bytes-read", String.valueOf(statistics.bytesRead()));
+		entry.put("jimfs.tempdir.io.writes", String.valueOf(statistics.writes()));
+		entry.put("jimfs.tempdir.io.bytes-written", String.valueOf(statistics.bytesWritten()));
+		entry.put("jimfs.tempdir.io.forces", String.valueOf(statistics.forces()));
+		entry.put("jimfs.tempdir.io.directory-listings", String.valueOf(statistics.directoryListings()));
+		entry.put("jimfs.tempdir.io.attribute-lookups", String.valueOf(statistics.attributeLookups()));
+		extensionContext.publishReportEntry(entry);
+	}
+
+	/**
+	 * Reporters registered in an {@link ExtensionContext}, warning on close about the
+	 * ones that never ran because {@link JimfsTempDirExtension} is not registered.
+	 */
+	@SuppressWarnings("serial")
+	private static final class Reporters extends CopyOnWriteArrayList<IoReporter> implements AutoCloseable {
+
+		private final String displayName;
+
+		private Reporters(String displayName) {
+			this.displayName = displayName;
+		}
+
+		@Override
+		public void close() {
+			if (!isEmpty()) {
+				LOGGER.log(Level.WARNING,
+						"I/O reporting is enabled, but the temporary directories of " + displayName
+								+ " were not checked as " + JimfsTempDirExtension.class.getSimpleName()
+								+ " is not registered: register it with @ExtendWith(JimfsTempDirExtension.class)");
+				clear();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the file operations performed via an {@link InstrumentedFileSystem}.
+ *
+ * <p>
+ * Counters can be updated concurrently, as a temporary directory may be accessed by
+ * multiple threads.
+ *
+ * <p>
+ * If a small I/O threshold is set, the sizes of the read and write operations are also
+ * recorded for each channel or stream, to detect the ones mostly transferring fewer bytes
+ * per operation than the threshold. If leak detection is enabled, the channels and
+ * streams that are still open are tracked together with the stack trace of their opening.
+ * If file events are enabled, each read and write operation is also recorded as a Java
+ * Flight Recorder event.
+ */
+final class IoStatistics {
+
+	private final LongAdder opens = new LongAdder();
+
+	private final LongAdder reads = new LongAdder();
+
+	private final LongAdder bytesRead = new LongAdder();
+
+	private final LongAdder writes = new LongAdder();
+
+	private final LongAdder bytesWritten = new LongAdder();
+
+	private final LongAdder forces = new LongAdder();
+
+	private final LongAdder directoryListings = new LongAdder();
+
+	private final LongAdder attributeLookups = new LongAdder();
+
+	private final long smallIoThreshold;
+
+	private final boolean leakDetection;
+
+	private final boolean fileEvents;
+
+	private final Queue<ChannelStatistics> channels = new ConcurrentLinkedQueue<>();
+
+	private final Set<ChannelStatistics> openChannels = ConcurrentHashMap.newKeySet();
+
+	IoStatistics(long smallIoThreshold, boolean leakDetection, boolean fileEvents) {
+		this.smallIoThreshold = smallIoThreshold;
+		this.leakDetection = leakDetection;
+		this.fileEvents = fileEvents;
+	}
+
+	ChannelStatistics opened(String kind, String path, boolean sync) {
+		opens.increment();
+		ChannelStatistics channel = track(kind, path, sync, smallIoThreshold);
+		if (smallIoThreshold != ResolvedConfiguration.UNSET) {
+			channels.add(channel);
+		}
+		return channel;
+	}
+
+	void opened() {
+		opens.increment();
+	}
+
+	ChannelStatistics listed(String path) {
+		directoryListings.increment();
+		return track("directory stream", path, false, ResolvedConfiguration.UNSET);
+	}
+
+	private ChannelStatistics track(String kind, String path, boolean sync, long smallIoThreshold) {
+		ChannelStatistics channel = new ChannelStatistics(this, kind, path, sync, smallIoThreshold,
+				leakDetection ? new Throwable("Opened " + kind + " of " + path) : null);
+		if (leakDetection) {
+			openChannels.add(channel);
+		}
+		return channel;
+	}
+
+	void attributesLookedUp() {
+		attributeLookups.increment();
+	}
+
+	long opens() {
+		return opens.sum();
+	}
+
+	long reads() {
+		return reads.sum();
+	}
+
+	long bytesRead() {
+		return bytesRead.sum();
+	}
+
+	long writes() {
+		return writes.sum();
+	}
+
+	long bytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	long forces() {
+		return forces.sum();
+	}
+
+	long directoryListings() {
+		return directoryListings.sum();
+	}
+
+	long attributeLookups() {
+		return attributeLookups.sum();
+	}
+
+	long smallIoThreshold() {
+		return smallIoThreshold;
+	}
+
+	List<ChannelStatistics> openChannels() {
+		return new ArrayList<>(openChannels);
+	}
+
+	List<ChannelStatistics> smallIoChannels() {
+		List<ChannelStatistics> smallIoChannels = new ArrayList<>();
+		for (ChannelStatistics channel : channels) {
+			if (channel.isSmallIo()) {
+				smallIoChannels.add(channel);
+			}
+		}
+		return smallIoChannels;
+	}
+
+	/**
+	 * Counters of the operations performed via a single channel or stream, including
+	 * directory streams, also contributing to the counters of the owning
+	 * {@link IoStatistics}.
+	 *
+	 * <p>
+	 * When tracked, operation sizes are recorded in a histogram of power-of-two buckets,
+	 * where bucket {@code 0} holds empty operations and bucket {@code k} the operations
+	 * transferring between {@code 2^(k-1)} and {@code 2^k - 1} bytes.
+	 */
+	static final class ChannelStatistics implements ObservedChannels.Listener {
+
+		private final IoStatistics owner;
+
+		private final String kind;
+
+		private final String path;
+
+		private final boolean sync;
+
+		private final long smallIoThreshold;
+
+		private final @Nullable AtomicLongArray histogram;
+
+		private final LongAdder reads = new LongAdder();
+
+		private final LongAdder writes = new LongAdder();
+
+		private final LongAdder smallOperations = new LongAdder();
+
+		private final @Nullable Throwable openingSite;
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		private ChannelStatistics(IoStatistics owner, String kind, String path, boolean sync, long smallIoThreshold,
+				@Nullable Throwable openingSite) {
+			this.owner = owner;
+			this.kind = kind;
+			this.path = path;
+			this.sync = sync;
+			this.smallIoThreshold = smallIoThreshold;
+			this.histogram = smallIoThreshold != ResolvedConfiguration.UNSET ? new AtomicLongArray(Long.SIZE + 1)
+					: null;
+			this.openingSite = openingSite;
+		}
+
+		@Override
+		public void closed() {
+			if (closed.compareAndSet(false, true)) {
+				owner.openChannels.remove(this);
+			}
+		}
+
+		@Override
+		public void read(long bytes) {
+			if (owner.fileEvents) {
+				FlightRecorderEvents.fileRead(path, Math.max(bytes, 0));
+			}
+			owner.reads.increment();
+			if (bytes > 0) {
+				owner.bytesRead.add(bytes);
+			}
+			if (histogram != null && bytes >= 0) {
+				reads.increment();
+				record(histogram, bytes);
+			}
+		}
+
+		@Override
+		public void written(long bytes) {
+			if (owner.fileEvents) {
+				FlightRecorderEvents.fileWritten(path, bytes);
+			}
+			owner.writes.increment();
+			if (bytes > 0) {
+				owner.bytesWritten.add(bytes);
+			}
+			if (sync) {
+				owner.forces.increment();
+			}
+			if (histogram != null && bytes >= 0) {
+				writes.increment();
+				record(histogram, bytes);
+			}
+		}
+
+		@Override
+		public void forced() {
+			owner.forces.increment();
+		}
+
+		private void record(AtomicLongArray histogram, long bytes) {
+			histogram.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(bytes));
+			if (bytes < smallIoThreshold) {
+				smallOperations.increment();
+			}
+		}
+
+		String kind() {
+			return kind;
+		}
+
+		String path() {
+			return path;
+		}
+
+		@Nullable Throwable openingSite() {
+			return openingSite;
+		}
+
+		long reads() {
+			return reads.sum();
+		}
+
+		long writes() {
+			return writes.sum();
+		}
+
+		/**
+		 * Whether more than one operation was performed and the median operation size is
+		 * below the small I/O threshold, i.e., more than half of the operations are
+		 * smaller than the threshold.
+		 */
+		boolean isSmallIo() {
+			long operations = reads() + writes();
+			return operations > 1 && smallOperations.sum() * 2 > operations;
+		}
+
+		/**
+		 * Return the histogram bucket holding the median operation size.
+		 * @return the bucket of the median operation size, or {@code -1} if not tracked
+		 * or no operation was performed
+		 */
+		int medianBucket() {
+			if (histogram == null) {
+				return -1;
+			}
+			long operations = reads() + writes();
+			long count = 0;
+			for (int bucket = 0; bucket < histogram.length(); bucket++) {
+				count += histogram.get(bucket);
+				if (count * 2 >= operations && operations > 0) {
+					return bucket;
+				}
+			}
+			return -1;
+		}
+
+	}
+
+}
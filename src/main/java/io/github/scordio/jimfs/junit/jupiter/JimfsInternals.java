@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.lang.System.Logger.Level;
+import java.lang.reflect.Field;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.util.Iterator;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * Reader of the internal state of Jimfs file systems that is not exposed by the public
+ * API.
+ *
+ * <p>
+ * The state is read reflectively, relying on the implementation of the Jimfs version this
+ * library is built against. If it cannot be read, e.g., after a Jimfs upgrade, a warning
+ * is logged once and the state is reported as unavailable.
+ */
+final class JimfsInternals {
+
+	private static final System.Logger LOGGER = System.getLogger(JimfsInternals.class.getName());
+
+	private static final String PACKAGE = "com.google.common.jimfs.";
+
+	private static final @Nullable JimfsInternals INSTANCE = create();
+
+	private final Class<?> fileStoreClass;
+
+	private final Field state;
+
+	private final Field resources;
+
+	private final Field disk;
+
+	private final Field blockSize;
+
+	private final Field blockCache;
+
+	private final Field blockCount;
+
+	private JimfsInternals() throws ReflectiveOperationException {
+		this.fileStoreClass = Class.forName(PACKAGE + "JimfsFileStore");
+		this.state = getField(fileStoreClass, "state");
+		this.resources = getField(Class.forName(PACKAGE + "FileSystemState"), "resources");
+		this.disk = getField(fileStoreClass, "disk");
+		Class<?> heapDiskClass = Class.forName(PACKAGE + "HeapDisk");
+		this.blockSize = getField(heapDiskClass, "blockSize");
+		this.blockCache = getField(heapDiskClass, "blockCache");
+		this.blockCount = getField(Class.forName(PACKAGE + "RegularFile"), "blockCount");
+	}
+
+	private static @Nullable JimfsInternals create() {
+		try {
+			return new JimfsInternals();
+		}
+		catch (ReflectiveOperationException | RuntimeException ex) {
+			LOGGER.log(Level.WARNING, "Cannot access the internal state of Jimfs file systems: file systems are never "
+					+ "pooled and their cached blocks are not measured", ex);
+			return null;
+		}
+	}
+
+	private static Field getField(Class<?> type, String name) throws NoSuchFieldException {
+		Field field = type.getDeclaredField(name);
+		field.setAccessible(true);
+		return field;
+	}
+
+	/**
+	 * Return the number of resources open in the given file system, i.e., channels,
+	 * streams, directory streams and watch services not closed yet.
+	 * @param fileSystem the Jimfs file system
+	 * @return the number of open resources, or an empty optional if unavailable
+	 */
+	static OptionalInt getOpenResources(FileSystem fileSystem) {
+		try {
+			@Nullable Object fileStore = getFileStore(fileSystem);
+			if (INSTANCE == null || fileStore == null) {
+				return OptionalInt.empty();
+			}
+			return OptionalInt.of(((Set<?>) INSTANCE.resources.get(INSTANCE.state.get(fileStore))).size());
+		}
+		catch (ReflectiveOperationException | RuntimeException ex) {
+			return OptionalInt.empty();
+		}
+	}
+
+	/**
+	 * Return the number of bytes held by the cache of free blocks of the given file
+	 * system, which are excluded from its allocated space.
+	 * @param fileSystem the Jimfs file system
+	 * @return the number of cached bytes, or an empty optional if unavailable
+	 */
+	static OptionalLong getCachedBytes(FileSystem fileSystem) {
+		try {
+			@Nullable Object fileStore = getFileStore(fileSystem);
+			if (INSTANCE == null || fileStore == null) {
+				return OptionalLong.empty();
+			}
+			Object heapDisk = INSTANCE.disk.get(fileStore);
+			return OptionalLong.of((long) INSTANCE.blockCount.getInt(INSTANCE.blockCache.get(heapDisk))
+					* INSTANCE.blockSize.getInt(heapDisk));
+		}
+		catch (ReflectiveOperationException | RuntimeException ex) {
+			return OptionalLong.empty();
+		}
+	}
+
+	private static @Nullable Object getFileStore(FileSystem fileSystem) {
+		Iterator<FileStore> fileStores = fileSystem.getFileStores().iterator();
+		if (INSTANCE == null || !fileStores.hasNext()) {
+			return null;
+		}
+		FileStore fileStore = fileStores.next();
+		return INSTANCE.fileStoreClass.isInstance(fileStore) ? fileStore : null;
+	}
+
+}
@@ -15,6 +15,7 @@
  */
 package io.github.scordio.jimfs.junit.jupiter;
 
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.lang.annotation.Documented;
@@ -22,6 +23,7 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.nio.file.Path;
 
 /**
  * {@link TempDir} composed annotation that sets the {@link TempDir#factory() factory}
@@ -40,6 +42,7 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 @TempDir(factory = JimfsTempDirFactory.class)
+@ExtendWith(JimfsTempDirExtension.class)
 @SuppressWarnings("exports")
 public @interface JimfsTempDir {
 
@@ -55,6 +58,375 @@ public @interface JimfsTempDir {
 	 */
 	String DEFAULT_CONFIGURATION_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.configuration.default";
 
+	/**
+	 * Configuration parameter to set the default {@link Scope Scope} of the in-memory
+	 * file system.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is
+	 * {@link Scope#TEMP_DIRECTORY}.
+	 *
+	 * @since 1.1.0
+	 */
+	String DEFAULT_SCOPE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.scope.default";
+
+	/**
+	 * Configuration parameter to set the default block size, in bytes, of the in-memory
+	 * file system.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, or is not positive, the block size of
+	 * the selected {@link Configuration Configuration} is used.
+	 *
+	 * @see #blockSize()
+	 * @since 1.1.0
+	 */
+	String DEFAULT_BLOCK_SIZE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.block-size.default";
+
+	/**
+	 * Configuration parameter to set the default maximum size, in bytes, of the in-memory
+	 * file system.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, or is not positive, the maximum size of
+	 * the selected {@link Configuration Configuration} is used.
+	 *
+	 * @see #maxSize()
+	 * @since 1.1.0
+	 */
+	String DEFAULT_MAX_SIZE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.max-size.default";
+
+	/**
+	 * Configuration parameter to set the default maximum cache size, in bytes, of the
+	 * in-memory file system.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, or is negative, the maximum cache size
+	 * of the selected {@link Configuration Configuration} is used.
+	 *
+	 * @see #maxCacheSize()
+	 * @since 1.1.0
+	 */
+	String DEFAULT_MAX_CACHE_SIZE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.max-cache-size.default";
+
+	/**
+	 * Configuration parameter to set the default attribute views of the in-memory file
+	 * system, as a comma-separated list of view names, e.g., {@code basic}.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the attribute views of the selected
+	 * {@link Configuration Configuration} are used.
+	 *
+	 * @see #attributeViews()
+	 * @since 1.1.0
+	 */
+	String DEFAULT_ATTRIBUTE_VIEWS_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.attribute-views.default";
+
+	/**
+	 * Configuration parameter to set the default polling interval, in milliseconds, of
+	 * the watch services of the in-memory file system.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the polling interval of the selected
+	 * {@link Configuration Configuration} is used, i.e., 5 seconds.
+	 *
+	 * @see #watchServicePollingInterval()
+	 * @since 1.1.0
+	 */
+	String DEFAULT_WATCH_SERVICE_POLLING_INTERVAL_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.watch-service.polling-interval.default";
+
+	/**
+	 * Configuration parameter to enable the pooling of the in-memory file systems.
+	 *
+	 * <p>
+	 * When enabled, closed file systems are wiped and kept in a pool, keyed by their
+	 * resolved configuration, to be reused by subsequent temporary directories instead of
+	 * creating a new file system each time.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, pooling is disabled.
+	 *
+	 * @since 1.1.0
+	 */
+	String POOLING_ENABLED_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.pooling.enabled";
+
+	/**
+	 * Configuration parameter to set the maximum number of idle file systems kept in the
+	 * pool for each resolved configuration.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is the number of available
+	 * processors.
+	 *
+	 * @see #POOLING_ENABLED_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String POOLING_MAX_SIZE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.pooling.max-size";
+
+	/**
+	 * Configuration parameter to enable the publication of the memory footprint of each
+	 * temporary directory as report entries.
+	 *
+	 * <p>
+	 * When enabled, the number of files, their total size in bytes and the number of
+	 * blocks they occupy are measured by {@link JimfsTempDirExtension} once the owning
+	 * test completes, before the temporary directory is deleted, and published via
+	 * {@link org.junit.jupiter.api.extension.ExtensionContext#publishReportEntry(java.util.Map)
+	 * ExtensionContext.publishReportEntry(Map)}.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the footprint is not reported.
+	 *
+	 * @since 1.1.0
+	 */
+	String FOOTPRINT_REPORT_ENABLED_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.footprint.report.enabled";
+
+	/**
+	 * Configuration parameter to set the maximum size, in bytes, of the files of a
+	 * temporary directory, measured by {@link JimfsTempDirExtension} once the owning test
+	 * completes.
+	 *
+	 * <p>
+	 * Temporary directories exceeding the threshold are handled according to the
+	 * {@value #FOOTPRINT_THRESHOLD_MODE_PARAMETER_NAME} configuration parameter.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, no threshold is applied.
+	 *
+	 * @since 1.1.0
+	 */
+	String FOOTPRINT_THRESHOLD_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.footprint.threshold";
+
+	/**
+	 * Configuration parameter to set how temporary directories exceeding the
+	 * {@value #FOOTPRINT_THRESHOLD_PARAMETER_NAME} are handled.
+	 *
+	 * <p>
+	 * Supported values are {@code warn}, which logs a warning, and {@code fail}, which
+	 * fails the test owning the temporary directory.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code warn}.
+	 *
+	 * @since 1.1.0
+	 */
+	String FOOTPRINT_THRESHOLD_MODE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.footprint.threshold.mode";
+
+	/**
+	 * Configuration parameter to enable the asynchronous closing of the in-memory file
+	 * systems.
+	 *
+	 * <p>
+	 * When enabled, file systems are handed over to a background daemon thread when
+	 * closed, instead of being closed on the test thread. The thread closes them in
+	 * batches, and all pending file systems are closed at the end of the test engine
+	 * execution.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, file systems are closed synchronously.
+	 *
+	 * @see #ASYNC_CLOSE_QUEUE_SIZE_PARAMETER_NAME
+	 * @see #ASYNC_CLOSE_BATCH_SIZE_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String ASYNC_CLOSE_ENABLED_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.close.async.enabled";
+
+	/**
+	 * Configuration parameter to set the maximum number of file systems waiting to be
+	 * closed asynchronously.
+	 *
+	 * <p>
+	 * When the limit is reached, closing a file system blocks until the background thread
+	 * catches up.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code 64}.
+	 *
+	 * @see #ASYNC_CLOSE_ENABLED_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String ASYNC_CLOSE_QUEUE_SIZE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.close.async.queue-size";
+
+	/**
+	 * Configuration parameter to set the maximum number of file systems closed by the
+	 * background thread in a single batch.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code 16}.
+	 *
+	 * @see #ASYNC_CLOSE_ENABLED_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String ASYNC_CLOSE_BATCH_SIZE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.close.async.batch-size";
+
+	/**
+	 * Configuration parameter to make all the temporary directories lazy.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, only temporary directories with the
+	 * {@link #lazy() lazy} attribute set to {@code true} are lazy.
+	 *
+	 * @see #lazy()
+	 * @since 1.1.0
+	 */
+	String LAZY_ENABLED_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.lazy.enabled";
+
+	/**
+	 * Configuration parameter to instrument all the temporary directories.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, only temporary directories with the
+	 * {@link #instrumented() instrumented} attribute set to {@code true} are
+	 * instrumented.
+	 *
+	 * @see #instrumented()
+	 * @since 1.1.0
+	 */
+	String INSTRUMENTATION_ENABLED_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.instrumentation.enabled";
+
+	/**
+	 * Configuration parameter to enable the detection of small I/O operations, i.e.,
+	 * channels and streams whose median read or write size is below the
+	 * {@value #SMALL_IO_THRESHOLD_PARAMETER_NAME} threshold.
+	 *
+	 * <p>
+	 * The detection instruments all the temporary directories and checks them once the
+	 * owning test completes. Channels and streams performing a single operation are never
+	 * flagged, as writing or reading a small file at once is not an issue.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code false}.
+	 *
+	 * @see #SMALL_IO_THRESHOLD_PARAMETER_NAME
+	 * @see #SMALL_IO_THRESHOLD_MODE_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String SMALL_IO_DETECTION_ENABLED_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.small-io.detection.enabled";
+
+	/**
+	 * Configuration parameter to set the operation size, in bytes, below which read and
+	 * write operations are considered small.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code 512}.
+	 *
+	 * @see #SMALL_IO_DETECTION_ENABLED_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String SMALL_IO_THRESHOLD_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.small-io.threshold";
+
+	/**
+	 * Configuration parameter to set how channels and streams performing small I/O
+	 * operations are handled: {@code warn} logs a warning listing them, while
+	 * {@code fail} fails the owning test.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code warn}.
+	 *
+	 * @see #SMALL_IO_DETECTION_ENABLED_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String SMALL_IO_THRESHOLD_MODE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.small-io.threshold.mode";
+
+	/**
+	 * Configuration parameter to enable the detection of leaked channels and streams,
+	 * i.e., channels, streams and directory streams still open when the owning test
+	 * completes.
+	 *
+	 * <p>
+	 * The detection instruments all the temporary directories and records the stack trace
+	 * of where each channel or stream is opened, which is included in the report of the
+	 * leaked ones. Asynchronous file channels are not tracked.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code false}.
+	 *
+	 * @see #LEAK_DETECTION_MODE_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String LEAK_DETECTION_ENABLED_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.leak-detection.enabled";
+
+	/**
+	 * Configuration parameter to set how leaked channels and streams are handled:
+	 * {@code warn} logs a warning for each of them, while {@code fail} fails the owning
+	 * test.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code warn}.
+	 *
+	 * @see #LEAK_DETECTION_ENABLED_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String LEAK_DETECTION_MODE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.leak-detection.mode";
+
+	/**
+	 * Configuration parameter to record each read and write operation performed via the
+	 * channels and streams of the temporary directories as a Java Flight Recorder event.
+	 *
+	 * <p>
+	 * The creation and closing of the in-memory file systems are always recorded, while
+	 * the file operations are only recorded if this configuration parameter is set to
+	 * {@code true}, as it instruments all the temporary directories.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code false}.
+	 *
+	 * @since 1.1.0
+	 */
+	String FILE_EVENTS_ENABLED_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.jfr.file-events.enabled";
+
+	/**
+	 * Configuration parameter to set the maximum memory, in bytes, that the file systems
+	 * of retained temporary directories may hold.
+	 *
+	 * <p>
+	 * Temporary directories are retained when their {@link TempDir#cleanup() cleanup
+	 * mode} prevents JUnit from deleting them. Their file systems are then kept open
+	 * until the engine execution completes, and the oldest ones are evicted, according to
+	 * the {@value #RETENTION_OVERFLOW_MODE_PARAMETER_NAME} configuration parameter, while
+	 * the total exceeds this maximum. Only temporary directories with the
+	 * {@link Scope#TEMP_DIRECTORY TEMP_DIRECTORY} scope that are not {@link #lazy() lazy}
+	 * are retained.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code 67108864}, i.e.,
+	 * 64 MiB.
+	 *
+	 * @see #RETENTION_OVERFLOW_MODE_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String RETENTION_MAX_SIZE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.retention.max-size";
+
+	/**
+	 * Configuration parameter to set how retained temporary directories are evicted when
+	 * exceeding the {@value #RETENTION_MAX_SIZE_PARAMETER_NAME} maximum: {@code discard}
+	 * closes their file systems, logging a warning, while {@code archive} first writes
+	 * their content to a ZIP archive in the
+	 * {@value #RETENTION_ARCHIVE_DIRECTORY_PARAMETER_NAME} directory. With
+	 * {@code archive}, the temporary directories still retained when the engine execution
+	 * completes are archived as well.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is {@code discard}.
+	 *
+	 * @see #RETENTION_MAX_SIZE_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String RETENTION_OVERFLOW_MODE_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.retention.overflow.mode";
+
+	/**
+	 * Configuration parameter to set the directory of the default file system where
+	 * retained temporary directories are archived.
+	 *
+	 * <p>
+	 * If this configuration parameter is not set, the default is the
+	 * {@code java.io.tmpdir} directory.
+	 *
+	 * @see #RETENTION_OVERFLOW_MODE_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	String RETENTION_ARCHIVE_DIRECTORY_PARAMETER_NAME = "jimfs.junit.jupiter.tempdir.retention.archive.directory";
+
 	/**
 	 * Configuration for the in-memory file system.
 	 *
@@ -64,6 +436,298 @@ public @interface JimfsTempDir {
 	 */
 	Configuration value() default Configuration.DEFAULT;
 
+	/**
+	 * Block size of the in-memory file system, in bytes.
+	 *
+	 * <p>
+	 * Larger blocks reduce the allocation overhead of large files, while smaller blocks
+	 * reduce the memory wasted by small files. Values that are not positive are ignored.
+	 *
+	 * <p>
+	 * Defaults to the block size of the selected {@link #value() configuration}.
+	 * @return the block size of the in-memory file system
+	 * @see #DEFAULT_BLOCK_SIZE_PARAMETER_NAME
+	 * @see com.google.common.jimfs.Configuration.Builder#setBlockSize(int)
+	 * @since 1.1.0
+	 */
+	int blockSize() default -1;
+
+	/**
+	 * Maximum size of the in-memory file system, in bytes.
+	 *
+	 * <p>
+	 * The maximum size acts as a hard quota on the heap memory used by the file system:
+	 * writes exceeding it fail with an {@link java.io.IOException} naming the test, the
+	 * maximum size and the largest files of the temporary directory. Values that are not
+	 * positive are ignored.
+	 *
+	 * <p>
+	 * Defaults to the maximum size of the selected {@link #value() configuration}.
+	 * @return the maximum size of the in-memory file system
+	 * @see #DEFAULT_MAX_SIZE_PARAMETER_NAME
+	 * @see com.google.common.jimfs.Configuration.Builder#setMaxSize(long)
+	 * @since 1.1.0
+	 */
+	long maxSize() default -1;
+
+	/**
+	 * Maximum size, in bytes, of the cache of unused blocks retained by the in-memory
+	 * file system for reuse.
+	 *
+	 * <p>
+	 * A bounded cache limits the memory held by files that are repeatedly written and
+	 * deleted, while {@code 0} disables caching entirely. Negative values are ignored.
+	 *
+	 * <p>
+	 * Defaults to the maximum cache size of the selected {@link #value() configuration}.
+	 * @return the maximum cache size of the in-memory file system
+	 * @see #DEFAULT_MAX_CACHE_SIZE_PARAMETER_NAME
+	 * @see com.google.common.jimfs.Configuration.Builder#setMaxCacheSize(long)
+	 * @since 1.1.0
+	 */
+	long maxCacheSize() default -1;
+
+	/**
+	 * Names of the attribute views supported by the in-memory file system, replacing the
+	 * ones of the selected {@link #value() configuration}.
+	 *
+	 * <p>
+	 * Each supported view makes the file system allocate and maintain the corresponding
+	 * attributes for every file, so restricting them to {@code basic}, which is always
+	 * supported, speeds up workloads creating many files that never read attributes like
+	 * {@code posix} or {@code dos} ones.
+	 *
+	 * <p>
+	 * Defaults to the attribute views of the selected {@link #value() configuration}.
+	 * @return the names of the attribute views of the in-memory file system
+	 * @see #DEFAULT_ATTRIBUTE_VIEWS_PARAMETER_NAME
+	 * @see com.google.common.jimfs.Configuration.Builder#setAttributeViews(String,
+	 * String...)
+	 * @since 1.1.0
+	 */
+	String[] attributeViews() default {};
+
+	/**
+	 * Polling interval, in milliseconds, of the watch services of the in-memory file
+	 * system.
+	 *
+	 * <p>
+	 * Jimfs watch services detect changes by polling the watched directories, so events
+	 * are signalled up to one interval after the corresponding modification. Short
+	 * intervals make tests relying on a {@link java.nio.file.WatchService WatchService}
+	 * complete faster, at the cost of a busier polling thread. Non-positive values are
+	 * ignored.
+	 *
+	 * <p>
+	 * Defaults to the polling interval of the selected {@link #value() configuration},
+	 * i.e., 5 seconds.
+	 * @return the polling interval of the watch services of the in-memory file system
+	 * @see #DEFAULT_WATCH_SERVICE_POLLING_INTERVAL_PARAMETER_NAME
+	 * @see com.google.common.jimfs.WatchServiceConfiguration#polling(long,
+	 * java.util.concurrent.TimeUnit)
+	 * @since 1.1.0
+	 */
+	long watchServicePollingInterval() default -1;
+
+	/**
+	 * Normalizations applied to the names of the paths of the in-memory file system when
+	 * displaying them, e.g., via {@link Path#toString()}.
+	 *
+	 * <p>
+	 * Defaults to the display normalizations of the selected {@link #value()
+	 * configuration}, while {@link PathNormalization#NONE} disables them.
+	 * @return the display normalizations of the path names
+	 * @see com.google.common.jimfs.Configuration.Builder#setNameDisplayNormalization(com.google.common.jimfs.PathNormalization,
+	 * com.google.common.jimfs.PathNormalization...)
+	 * @since 1.1.0
+	 */
+	PathNormalization[] nameDisplayNormalization() default {};
+
+	/**
+	 * Normalizations applied to the names of the paths of the in-memory file system when
+	 * looking up files, e.g., {@link PathNormalization#CASE_FOLD_ASCII} for
+	 * case-insensitive lookups.
+	 *
+	 * <p>
+	 * Each normalization adds a cost to every lookup, hence
+	 * {@link PathNormalization#NONE} speeds up lookups in deep trees, while enabling
+	 * normalizations on a platform that does not use them allows checking the
+	 * cross-platform correctness of the code under test.
+	 *
+	 * <p>
+	 * Defaults to the canonical normalizations of the selected {@link #value()
+	 * configuration}.
+	 * @return the canonical normalizations of the path names
+	 * @see com.google.common.jimfs.Configuration.Builder#setNameCanonicalNormalization(com.google.common.jimfs.PathNormalization,
+	 * com.google.common.jimfs.PathNormalization...)
+	 * @since 1.1.0
+	 */
+	PathNormalization[] nameCanonicalNormalization() default {};
+
+	/**
+	 * Form of the path names used by {@link Path#equals(Object)} and related methods.
+	 *
+	 * <p>
+	 * Defaults to the form used by the selected {@link #value() configuration}.
+	 * @return the form of the path names used for equality
+	 * @see com.google.common.jimfs.Configuration.Builder#setPathEqualityUsesCanonicalForm(boolean)
+	 * @since 1.1.0
+	 */
+	PathEquality pathEquality() default PathEquality.DEFAULT;
+
+	/**
+	 * Scope of the in-memory file system.
+	 *
+	 * <p>
+	 * Defaults to {@link Scope#TEMP_DIRECTORY}.
+	 * @return the scope of the in-memory file system
+	 * @since 1.1.0
+	 */
+	Scope scope() default Scope.DEFAULT;
+
+	/**
+	 * Location of a fixture directory whose content is copied into the temporary
+	 * directory.
+	 *
+	 * <p>
+	 * Locations starting with {@code classpath:} are resolved as classpath resources,
+	 * e.g., {@code classpath:fixtures/sample}, while any other location is resolved as a
+	 * directory of the default file system, e.g., {@code src/test/resources/fixtures}.
+	 *
+	 * <p>
+	 * Each fixture is read only once per engine execution and kept in memory, so that
+	 * populating further temporary directories does not access the fixture source again.
+	 *
+	 * <p>
+	 * Defaults to no fixture, i.e., an empty temporary directory.
+	 * @return the location of the fixture directory
+	 * @since 1.1.0
+	 */
+	String fixture() default "";
+
+	/**
+	 * Whether the in-memory file system and the temporary directory are only created on
+	 * the first operation accessing them.
+	 *
+	 * <p>
+	 * Until then, the temporary directory is reported as an existing, empty directory and
+	 * can be deleted without creating anything, so tests that never use it do not pay for
+	 * its setup and teardown. Manipulating the path, e.g., resolving other paths against
+	 * it, does not count as an access.
+	 *
+	 * <p>
+	 * Only temporary directories with the {@link Scope#TEMP_DIRECTORY} scope can be lazy,
+	 * as shared file systems are created anyway.
+	 *
+	 * <p>
+	 * Defaults to {@code false}.
+	 * @return whether the temporary directory is lazy
+	 * @see #LAZY_ENABLED_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	boolean lazy() default false;
+
+	/**
+	 * Whether the file operations performed via the temporary directory are counted.
+	 *
+	 * <p>
+	 * The number of opened files, read and write operations, transferred bytes, directory
+	 * listings and attribute lookups are published as report entries by
+	 * {@link JimfsTempDirExtension} once the owning test completes. Only the operations
+	 * performed via paths derived from the temporary directory are counted, excluding the
+	 * population of the {@link #fixture() fixture}.
+	 *
+	 * <p>
+	 * Defaults to {@code false}.
+	 * @return whether the temporary directory is instrumented
+	 * @see #INSTRUMENTATION_ENABLED_PARAMETER_NAME
+	 * @since 1.1.0
+	 */
+	boolean instrumented() default false;
+
+	/**
+	 * Latency model of the storage of the temporary directory.
+	 *
+	 * <p>
+	 * Each file operation performed via paths derived from the temporary directory is
+	 * delayed according to the model, to exercise the code under test as on a slow
+	 * storage, excluding the population of the {@link #fixture() fixture}.
+	 *
+	 * <p>
+	 * Defaults to no latency.
+	 * @return the latency model of the storage of the temporary directory
+	 * @see Latency
+	 * @since 1.1.0
+	 */
+	Latency latency() default @Latency;
+
+	/**
+	 * Latency model of the storage of a temporary directory.
+	 *
+	 * <p>
+	 * Each file operation performed via the temporary directory, such as opening a
+	 * channel or stream, listing a directory, creating, deleting, copying or moving a
+	 * file, reading or writing its attributes, and each read, write or force operation
+	 * performed via a channel or stream, is delayed by the {@link #operationDelay()
+	 * operation delay}, plus a random {@link #jitter() jitter}, plus the time needed to
+	 * transfer the read, written or copied bytes at the given {@link #bytesPerSecond()
+	 * throughput}. Read, write and copy operations are delayed once completed, so that
+	 * the actual number of transferred bytes is known. Asynchronous file channels, file
+	 * attribute views and file stores are not delayed.
+	 *
+	 * <p>
+	 * The jitter is drawn from a random number generator initialized with the given
+	 * {@link #seed() seed}, so that the same sequence of operations is delayed in the
+	 * same way by every run.
+	 *
+	 * @since 1.1.0
+	 */
+	@Target({})
+	@Retention(RetentionPolicy.RUNTIME)
+	@Documented
+	@interface Latency {
+
+		/**
+		 * Fixed delay, in microseconds, of each file operation. Non-positive values are
+		 * ignored.
+		 *
+		 * <p>
+		 * Defaults to no delay.
+		 * @return the fixed delay of each file operation
+		 */
+		long operationDelay() default 0;
+
+		/**
+		 * Throughput, in bytes per second, of read, write and copy operations.
+		 * Non-positive values are ignored.
+		 *
+		 * <p>
+		 * Defaults to unlimited throughput.
+		 * @return the throughput of read and write operations
+		 */
+		long bytesPerSecond() default 0;
+
+		/**
+		 * Maximum random delay, in microseconds, added to each file operation.
+		 * Non-positive values are ignored.
+		 *
+		 * <p>
+		 * Defaults to no jitter.
+		 * @return the maximum random delay added to each file operation
+		 */
+		long jitter() default 0;
+
+		/**
+		 * Seed of the random number generator drawing the {@link #jitter() jitter}.
+		 *
+		 * <p>
+		 * Defaults to {@code 0}.
+		 * @return the seed of the random number generator drawing the jitter
+		 */
+		long seed() default 0;
+
+	}
+
 	/**
 	 * Enumeration of configurations for the in-memory file system.
 	 *
@@ -105,4 +769,113 @@ public @interface JimfsTempDir {
 
 	}
 
+	/**
+	 * Enumeration of scopes for the in-memory file system.
+	 *
+	 * <p>
+	 * Temporary directories with a scope other than {@link #TEMP_DIRECTORY} share a
+	 * single in-memory file system with the other temporary directories having the same
+	 * scope and {@link Configuration Configuration}, each one being a distinct directory
+	 * under the root of the file system. The shared file system is closed when the owning
+	 * extension context is closed.
+	 *
+	 * @since 1.1.0
+	 */
+	enum Scope {
+
+		/**
+		 * Default scope.
+		 *
+		 * @see #DEFAULT_SCOPE_PARAMETER_NAME
+		 */
+		DEFAULT,
+		/**
+		 * Dedicated file system for each temporary directory.
+		 */
+		TEMP_DIRECTORY,
+		/**
+		 * File system shared within the extension context where the temporary directory
+		 * is created, typically a single test invocation.
+		 */
+		INVOCATION,
+		/**
+		 * File system shared within the enclosing test class.
+		 */
+		CLASS,
+		/**
+		 * File system shared within the whole test engine execution.
+		 */
+		ENGINE
+
+	}
+
+	/**
+	 * Enumeration of the normalizations applicable to the path names of the in-memory
+	 * file system.
+	 *
+	 * @see com.google.common.jimfs.PathNormalization
+	 * @since 1.1.0
+	 */
+	enum PathNormalization {
+
+		/**
+		 * No normalization.
+		 *
+		 * @see com.google.common.jimfs.PathNormalization#NONE
+		 */
+		NONE,
+		/**
+		 * Unicode composed normalization.
+		 *
+		 * @see com.google.common.jimfs.PathNormalization#NFC
+		 */
+		NFC,
+		/**
+		 * Unicode decomposed normalization.
+		 *
+		 * @see com.google.common.jimfs.PathNormalization#NFD
+		 */
+		NFD,
+		/**
+		 * Unicode case folding, for case-insensitive lookups of any name.
+		 *
+		 * <p>
+		 * Requires ICU4J on the classpath.
+		 *
+		 * @see com.google.common.jimfs.PathNormalization#CASE_FOLD_UNICODE
+		 */
+		CASE_FOLD_UNICODE,
+		/**
+		 * ASCII case folding, for case-insensitive lookups of ASCII names.
+		 *
+		 * @see com.google.common.jimfs.PathNormalization#CASE_FOLD_ASCII
+		 */
+		CASE_FOLD_ASCII
+
+	}
+
+	/**
+	 * Enumeration of the forms of the path names used for path equality.
+	 *
+	 * @since 1.1.0
+	 */
+	enum PathEquality {
+
+		/**
+		 * Form used by the selected {@link Configuration Configuration}.
+		 */
+		DEFAULT,
+		/**
+		 * Display form, i.e., the path names after applying the
+		 * {@link #nameDisplayNormalization() display normalizations}.
+		 */
+		DISPLAY,
+		/**
+		 * Canonical form, i.e., the path names after applying the
+		 * {@link #nameCanonicalNormalization() canonical normalizations}.
+		 */
+		CANONICAL
+
+	}
+
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+
+import java.io.IOException;
+
+/**
+ * Extension complementing {@link JimfsTempDirFactory} with the checks to be performed
+ * once a test completes, but before its temporary directories are deleted.
+ *
+ * <p>
+ * Currently, the extension measures the memory footprint of the temporary directories, if
+ * enabled via the {@value JimfsTempDir#FOOTPRINT_REPORT_ENABLED_PARAMETER_NAME} or
+ * {@value JimfsTempDir#FOOTPRINT_THRESHOLD_PARAMETER_NAME} configuration parameters, and
+ * publishes the file operations performed via the {@link JimfsTempDir#instrumented()
+ * instrumented} ones, checking them against the {@link IoBudget} of the test, if any, and
+ * flagging small I/O operations, if enabled via the
+ * {@value JimfsTempDir#SMALL_IO_DETECTION_ENABLED_PARAMETER_NAME} configuration
+ * parameter.
+ *
+ * <p>
+ * The extension is registered automatically by the {@link JimfsTempDir} annotation. When
+ * {@link JimfsTempDirFactory} is used via {@link org.junit.jupiter.api.io.TempDir}, the
+ * extension must be registered explicitly, e.g., with
+ * {@code @ExtendWith(JimfsTempDirExtension.class)}, otherwise a warning is logged for
+ * each test whose temporary directories could not be checked.
+ *
+ * @since 1.1.0
+ */
+@SuppressWarnings("exports")
+public final class JimfsTempDirExtension implements BeforeEachCallback, AfterEachCallback, AfterAllCallback {
+
+	/** Create a new {@code JimfsTempDirExtension} instance. */
+	public JimfsTempDirExtension() {
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void beforeEach(ExtensionContext context) {
+		IoReporter.markAll(context);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void afterEach(ExtensionContext context) throws Exception {
+		reportAll(context);
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void afterAll(ExtensionContext context) throws Exception {
+		reportAll(context);
+	}
+
+	private static void reportAll(ExtensionContext context) throws IOException {
+		@Nullable AssertionFailedError failure = null;
+		try {
+			IoReporter.reportAll(context);
+		}
+		catch (AssertionFailedError ex) {
+			failure = ex;
+		}
+		try {
+			FootprintReporter.reportAll(context);
+		}
+		catch (AssertionFailedError ex) {
+			if (failure == null) {
+				throw ex;
+			}
+			failure.addSuppressed(ex);
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+}
@@ -17,17 +17,30 @@ package io.github.scordio.jimfs.junit.jupiter;
 
 import com.google.common.jimfs.Configuration;
 import com.google.common.jimfs.Jimfs;
+import com.google.common.jimfs.PathNormalization;
+import com.google.common.jimfs.WatchServiceConfiguration;
 import org.jspecify.annotations.Nullable;
 import org.junit.jupiter.api.extension.AnnotatedElementContext;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.io.CleanupMode;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.api.io.TempDirFactory;
+import org.junit.platform.commons.support.AnnotationSupport;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 /**
@@ -53,6 +66,81 @@ import java.util.function.Supplier;
  * </ul>
  *
  * <p>
+ * By default, a new in-memory file system is created for each temporary directory and
+ * closed together with it. If the {@value JimfsTempDir#POOLING_ENABLED_PARAMETER_NAME}
+ * configuration parameter is set to {@code true}, file systems are instead wiped and
+ * returned to a bounded pool when closed, to be reused by subsequent temporary
+ * directories with the same configuration.
+ *
+ * <p>
+ * If the {@value JimfsTempDir#ASYNC_CLOSE_ENABLED_PARAMETER_NAME} configuration parameter
+ * is set to {@code true}, file systems are closed in batches by a background thread
+ * rather than by the test thread, and any pending ones are closed at the end of the
+ * engine execution.
+ *
+ * <p>
+ * Depending on the {@link JimfsTempDir#scope() scope}, temporary directories can also
+ * share a single in-memory file system, created on first use and closed when the owning
+ * {@link ExtensionContext} is closed. In this case, each temporary directory is a
+ * distinct directory under the root of the shared file system.
+ *
+ * <p>
+ * If a {@link JimfsTempDir#fixture() fixture} is set, its content is loaded once per
+ * engine execution into an in-memory template, which is then copied into each new
+ * temporary directory.
+ *
+ * <p>
+ * If the temporary directory is {@link JimfsTempDir#lazy() lazy}, its file system and the
+ * directory itself are only created on the first operation accessing them, and nothing is
+ * closed if that never happens.
+ *
+ * <p>
+ * If the {@value JimfsTempDir#FOOTPRINT_REPORT_ENABLED_PARAMETER_NAME} or
+ * {@value JimfsTempDir#FOOTPRINT_THRESHOLD_PARAMETER_NAME} configuration parameters are
+ * set, the memory footprint of each temporary directory is measured by
+ * {@link JimfsTempDirExtension} once the owning test completes, i.e., before the
+ * temporary directory is deleted, and reported or checked against the threshold.
+ *
+ * <p>
+ * If the temporary directory is {@link JimfsTempDir#instrumented() instrumented}, the
+ * file operations performed via its paths are counted and published in the same way. The
+ * same counters are checked against the {@link IoBudget} of the owning test, if any. If
+ * the {@value JimfsTempDir#SMALL_IO_DETECTION_ENABLED_PARAMETER_NAME} configuration
+ * parameter is set to {@code true}, the channels and streams mostly performing small read
+ * or write operations are also reported. If the
+ * {@value JimfsTempDir#LEAK_DETECTION_ENABLED_PARAMETER_NAME} configuration parameter is
+ * set to {@code true}, the channels and streams still open when the owning test completes
+ * are reported together with the stack trace of their opening.
+ *
+ * <p>
+ * If the temporary directory has a {@link JimfsTempDir#latency() latency} model, the file
+ * operations performed via its paths are delayed accordingly.
+ *
+ * <p>
+ * The creation of file systems and temporary directories, and the closing of file
+ * systems, are recorded as Java Flight Recorder events. If the
+ * {@value JimfsTempDir#FILE_EVENTS_ENABLED_PARAMETER_NAME} configuration parameter is set
+ * to {@code true}, each read and write operation performed via the temporary directories
+ * is recorded as well.
+ *
+ * <p>
+ * Live statistics of the file systems created by all the factory instances are exposed
+ * via the {@link JimfsTempDirFactoryMXBean} registered in the platform MBean server.
+ *
+ * <p>
+ * File systems that are still open once the engine execution completes, e.g., because the
+ * factory that created them was never closed, are closed and reported with a warning.
+ *
+ * <p>
+ * If JUnit retains the temporary directory because of its {@link TempDir#cleanup()
+ * cleanup mode}, its file system is kept open until the engine execution completes,
+ * within the {@value JimfsTempDir#RETENTION_MAX_SIZE_PARAMETER_NAME} memory limit.
+ *
+ * <p>
+ * Instances are thread-safe: the same factory can create temporary directories
+ * concurrently, and closing it closes all the file systems dedicated to them.
+ *
+ * <p>
  * Please note that only annotated fields or parameters of type {@link Path} are supported
  * as Jimfs is a non-default file system, and {@link java.io.File} instances are
  * associated with the default file system only.
@@ -65,7 +153,10 @@ public final class JimfsTempDirFactory implements TempDirFactory {
 
 	private static final String DEFAULT_PREFIX = "junit-";
 
-	private @Nullable FileSystem fileSystem;
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace
+		.create(JimfsTempDirFactory.class);
+
+	private final Deque<Closeable> fileSystems = new ConcurrentLinkedDeque<>();
 
 	/** Create a new {@code JimfsTempDirFactory} instance. */
 	public JimfsTempDirFactory() {
@@ -75,49 +166,436 @@ public final class JimfsTempDirFactory implements TempDirFactory {
 	@Override
 	public Path createTempDirectory(AnnotatedElementContext elementContext, ExtensionContext extensionContext)
 			throws IOException {
+		FlightRecorderEvents.TempDirectoryCreation event = new FlightRecorderEvents.TempDirectoryCreation();
+		event.begin();
+
 		Optional<JimfsTempDir> annotation = elementContext.findAnnotation(JimfsTempDir.class);
 
-		Supplier<Configuration> jimfsConfigurationSupplier = annotation.map(JimfsTempDir::value)
-			.flatMap(JimfsTempDirFactory::getJimfsConfigurationSupplier)
-			.or(() -> extensionContext
-				.getConfigurationParameter(JimfsTempDir.DEFAULT_CONFIGURATION_PARAMETER_NAME,
-						JimfsTempDirFactory::transform)
-				.flatMap(JimfsTempDirFactory::getJimfsConfigurationSupplier))
-			.orElse(Configuration::forCurrentPlatform);
+		ConfigurationParameters parameters = extensionContext.getRoot()
+			.getStore(NAMESPACE)
+			.computeIfAbsent(ConfigurationParameters.class, key -> ConfigurationParameters.parse(extensionContext),
+					ConfigurationParameters.class);
+
+		ResolvedConfiguration configuration = new ResolvedConfiguration(
+				annotation.map(JimfsTempDir::value)
+					.filter(value -> JimfsTempDir.Configuration.DEFAULT != value)
+					.orElse(parameters.configuration()),
+				annotation.map(JimfsTempDir::blockSize).filter(value -> value > 0).orElse(parameters.blockSize()),
+				annotation.map(JimfsTempDir::maxSize).filter(value -> value > 0).orElse(parameters.maxSize()),
+				annotation.map(JimfsTempDir::maxCacheSize)
+					.filter(value -> value >= 0)
+					.orElse(parameters.maxCacheSize()),
+				annotation.map(JimfsTempDir::attributeViews)
+					.map(ConfigurationParameters::parseAttributeViews)
+					.filter(value -> !value.isEmpty())
+					.orElse(parameters.attributeViews()),
+				annotation.map(JimfsTempDir::watchServicePollingInterval)
+					.filter(value -> value > 0)
+					.orElse(parameters.watchServicePollingInterval()),
+				annotation.map(JimfsTempDir::nameDisplayNormalization).map(List::of).orElse(List.of()),
+				annotation.map(JimfsTempDir::nameCanonicalNormalization).map(List::of).orElse(List.of()),
+				annotation.map(JimfsTempDir::pathEquality).orElse(JimfsTempDir.PathEquality.DEFAULT));
+
+		JimfsTempDir.Scope scope = annotation.map(JimfsTempDir::scope)
+			.filter(value -> JimfsTempDir.Scope.DEFAULT != value)
+			.orElse(parameters.scope());
+
+		FileSystemRegistry registry = getRegistry(extensionContext);
+
+		Optional<String> fixture = annotation.map(JimfsTempDir::fixture).filter(value -> !value.isEmpty());
+		@Nullable FixtureTemplate fixtureTemplate = fixture.isPresent() ? getFixtureTemplate(extensionContext, fixture.get())
+				: null;
+
+		@Nullable AsyncCloser closer = parameters.asyncCloseEnabled() ? getCloser(extensionContext, parameters) : null;
+		@Nullable FileSystemPool fileSystemPool = parameters.poolingEnabled() ? getPool(extensionContext, parameters) : null;
+
+		boolean lazy = annotation.map(JimfsTempDir::lazy).orElse(false) || parameters.lazyEnabled();
+		boolean instrumented = annotation.map(JimfsTempDir::instrumented).orElse(false)
+				|| parameters.instrumentationEnabled();
+
+		@Nullable RetainedFileSystems retention = JimfsTempDir.Scope.TEMP_DIRECTORY == scope && !lazy
+				&& isRetainable(elementContext, extensionContext) ? getRetention(extensionContext, parameters) : null;
+
+		Path tempDir;
+		if (JimfsTempDir.Scope.TEMP_DIRECTORY == scope && lazy) {
+			tempDir = createLazyTempDirectory(extensionContext.getUniqueId(), getPathFileSystems(extensionContext),
+					configuration, registry, fileSystemPool, closer, fixtureTemplate);
+		}
+		else {
+			tempDir = createEagerTempDirectory(scope, extensionContext, configuration, registry, fileSystemPool, closer,
+					retention, fixtureTemplate);
+		}
+
+		Path target = tempDir;
+
+		if (FootprintReporter.isEnabled(parameters)) {
+			int blockSize = configuration.blockSize() != ResolvedConfiguration.UNSET ? configuration.blockSize()
+					: FootprintReporter.DEFAULT_BLOCK_SIZE;
+			FootprintReporter.register(extensionContext,
+					new FootprintReporter(target, blockSize, JimfsTempDir.Scope.TEMP_DIRECTORY == scope, parameters));
+		}
+
+		if (configuration.maxSize() != ResolvedConfiguration.UNSET) {
+			tempDir = new QuotaFileSystem(target, QuotaDiagnostics.describeOwner(extensionContext)).wrap(target);
+		}
+
+		@Nullable IoBudget budget = IoReporter.findBudget(extensionContext);
+		if (instrumented || budget != null || parameters.smallIoDetectionEnabled() || parameters.leakDetectionEnabled()
+				|| parameters.fileEventsEnabled()) {
+			IoStatistics statistics = new IoStatistics(
+					parameters.smallIoDetectionEnabled() ? parameters.smallIoThreshold() : ResolvedConfiguration.UNSET,
+					parameters.leakDetectionEnabled(), parameters.fileEventsEnabled());
+			IoReporter.register(extensionContext, new IoReporter(target, statistics, instrumented, parameters));
+			tempDir = new InstrumentedFileSystem(tempDir.getFileSystem(), statistics).wrap(tempDir);
+		}
+
+		Optional<JimfsTempDir.Latency> latency = annotation.map(JimfsTempDir::latency)
+			.filter(LatencyFileSystem::isEnabled);
+		if (latency.isPresent()) {
+			tempDir = new LatencyFileSystem(tempDir.getFileSystem(), latency.get()).wrap(tempDir);
+		}
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.test = extensionContext.getUniqueId();
+			event.path = tempDir.toString();
+			event.fileSystem = target.getFileSystem() instanceof LazyFileSystem ? ""
+					: FlightRecorderEvents.getId(target.getFileSystem());
+			event.scope = scope.name();
+			event.lazy = lazy;
+			event.commit();
+		}
+
+		return tempDir;
+	}
+
+	private Path createEagerTempDirectory(JimfsTempDir.Scope scope, ExtensionContext extensionContext,
+			ResolvedConfiguration configuration, FileSystemRegistry registry, @Nullable FileSystemPool fileSystemPool,
+			@Nullable AsyncCloser closer, @Nullable RetainedFileSystems retention,
+			@Nullable FixtureTemplate fixtureTemplate) throws IOException {
+		FileSystem tempDirFileSystem;
+		@Nullable OwnedFileSystem ownedFileSystem = null;
+		if (JimfsTempDir.Scope.TEMP_DIRECTORY == scope) {
+			tempDirFileSystem = openFileSystem(extensionContext.getUniqueId(), configuration, registry, fileSystemPool);
+			ownedFileSystem = new OwnedFileSystem(extensionContext.getUniqueId(), tempDirFileSystem, fileSystemPool,
+					closer);
+		}
+		else {
+			tempDirFileSystem = getSharedFileSystem(getOwningContext(scope, extensionContext), configuration, registry,
+					fileSystemPool, closer);
+		}
+
+		Path root = tempDirFileSystem.getRootDirectories().iterator().next();
+		Path tempDir = Files.createTempDirectory(root, DEFAULT_PREFIX);
+
+		if (ownedFileSystem != null) {
+			fileSystems.add(retention != null
+					? new RetainableFileSystem(extensionContext.getUniqueId(), tempDir, ownedFileSystem, retention)
+					: ownedFileSystem);
+		}
+
+		if (fixtureTemplate != null) {
+			fixtureTemplate.copyTo(tempDir);
+		}
+
+		return tempDir;
+	}
+
+	private Path createLazyTempDirectory(String test, PathFileSystems pathFileSystems,
+			ResolvedConfiguration configuration, FileSystemRegistry registry, @Nullable FileSystemPool fileSystemPool,
+			@Nullable AsyncCloser closer, @Nullable FixtureTemplate fixtureTemplate) {
+		FileSystem pathFileSystem = pathFileSystems.get(configuration);
+		Path root = pathFileSystem.getRootDirectories().iterator().next();
+		String name = DEFAULT_PREFIX + Long.toUnsignedString(ThreadLocalRandom.current().nextLong());
+
+		LazyFileSystem lazyFileSystem = new LazyFileSystem(pathFileSystem, root.resolve(name).toString(),
+				new LazyFileSystem.Materializer() {
+
+					@Override
+					public FileSystem materialize(@Nullable String tempDirectory) throws IOException {
+						FileSystem fileSystem = openFileSystem(test, configuration, registry, fileSystemPool);
+						if (tempDirectory != null) {
+							Path tempDir = Files.createDirectory(fileSystem.getPath(tempDirectory));
+							if (fixtureTemplate != null) {
+								fixtureTemplate.copyTo(tempDir);
+							}
+						}
+						return fileSystem;
+					}
 
-		fileSystem = Jimfs.newFileSystem(jimfsConfigurationSupplier.get());
-		Path root = fileSystem.getRootDirectories().iterator().next();
-		return Files.createTempDirectory(root, DEFAULT_PREFIX);
+					@Override
+					public void release(FileSystem fileSystem) throws IOException {
+						new OwnedFileSystem(test, fileSystem, fileSystemPool, closer).close();
+					}
+
+				});
+		fileSystems.add(lazyFileSystem);
+		return lazyFileSystem.getTempDirectory();
 	}
 
-	private static Optional<Supplier<Configuration>> getJimfsConfigurationSupplier(
-			JimfsTempDir.Configuration configuration) {
-		if (JimfsTempDir.Configuration.DEFAULT == configuration) {
-			return Optional.empty();
+	private static FileSystem openFileSystem(String test, ResolvedConfiguration configuration,
+			FileSystemRegistry registry, @Nullable FileSystemPool pool) throws IOException {
+		// idle pooled file systems must not hold the blocks of deleted files
+		ResolvedConfiguration fileSystemConfiguration = pool != null ? configuration.withDefaultMaxCacheSize(0)
+				: configuration;
+		Supplier<FileSystem> fileSystemSupplier = () -> {
+			FlightRecorderEvents.FileSystemCreation event = new FlightRecorderEvents.FileSystemCreation();
+			event.begin();
+			FileSystem fileSystem = Jimfs.newFileSystem(createJimfsConfiguration(fileSystemConfiguration));
+			registry.register(fileSystem);
+			FileSystemMonitor.INSTANCE.created(fileSystem);
+			event.end();
+			if (event.shouldCommit()) {
+				event.test = test;
+				event.fileSystem = FlightRecorderEvents.getId(fileSystem);
+				event.set(fileSystemConfiguration);
+				event.commit();
+			}
+			return fileSystem;
+		};
+
+		return pool != null ? pool.acquire(configuration, fileSystemSupplier) : fileSystemSupplier.get();
+	}
+
+	private static Configuration createJimfsConfiguration(ResolvedConfiguration configuration) {
+		Configuration preset = switch (configuration.preset()) {
+			case FOR_CURRENT_PLATFORM -> Configuration.forCurrentPlatform();
+			case OS_X -> Configuration.osX();
+			case UNIX -> Configuration.unix();
+			case WINDOWS -> Configuration.windows();
+			default -> throw new RuntimeException("Should not be thrown");
+		};
+
+		Configuration.Builder builder = preset.toBuilder();
+		if (configuration.blockSize() != ResolvedConfiguration.UNSET) {
+			builder.setBlockSize(configuration.blockSize());
+		}
+		if (configuration.maxSize() != ResolvedConfiguration.UNSET) {
+			builder.setMaxSize(configuration.maxSize());
+		}
+		if (configuration.maxCacheSize() != ResolvedConfiguration.UNSET) {
+			builder.setMaxCacheSize(configuration.maxCacheSize());
+		}
+		if (!configuration.attributeViews().isEmpty()) {
+			builder.setAttributeViews("basic", configuration.attributeViews().toArray(String[]::new));
 		}
+		if (!configuration.nameDisplayNormalization().isEmpty()) {
+			PathNormalization[] normalizations = toJimfs(configuration.nameDisplayNormalization());
+			builder.setNameDisplayNormalization(normalizations[0],
+					Arrays.copyOfRange(normalizations, 1, normalizations.length));
+		}
+		if (!configuration.nameCanonicalNormalization().isEmpty()) {
+			PathNormalization[] normalizations = toJimfs(configuration.nameCanonicalNormalization());
+			builder.setNameCanonicalNormalization(normalizations[0],
+					Arrays.copyOfRange(normalizations, 1, normalizations.length));
+		}
+		if (configuration.pathEquality() != JimfsTempDir.PathEquality.DEFAULT) {
+			builder
+				.setPathEqualityUsesCanonicalForm(configuration.pathEquality() == JimfsTempDir.PathEquality.CANONICAL);
+		}
+		if (configuration.watchServicePollingInterval() > 0) {
+			builder.setWatchServiceConfiguration(WatchServiceConfiguration
+				.polling(configuration.watchServicePollingInterval(), TimeUnit.MILLISECONDS));
+		}
+		return builder.build();
+	}
+
+	private static PathNormalization[] toJimfs(List<JimfsTempDir.PathNormalization> normalizations) {
+		return normalizations.stream()
+			.map(normalization -> PathNormalization.valueOf(normalization.name()))
+			.toArray(PathNormalization[]::new);
+	}
 
-		Supplier<Configuration> jimfsConfigurationSupplier = switch (configuration) {
-			case FOR_CURRENT_PLATFORM -> Configuration::forCurrentPlatform;
-			case OS_X -> Configuration::osX;
-			case UNIX -> Configuration::unix;
-			case WINDOWS -> Configuration::windows;
+	private static ExtensionContext getOwningContext(JimfsTempDir.Scope scope, ExtensionContext extensionContext) {
+		return switch (scope) {
+			case INVOCATION -> extensionContext;
+			case CLASS -> {
+				ExtensionContext context = extensionContext;
+				while (context.getTestMethod().isPresent()) {
+					context = context.getParent().orElseThrow();
+				}
+				yield context;
+			}
+			case ENGINE -> extensionContext.getRoot();
 			default -> throw new RuntimeException("Should not be thrown");
 		};
+	}
 
-		return Optional.of(jimfsConfigurationSupplier);
+	private static FileSystem getSharedFileSystem(ExtensionContext owningContext, ResolvedConfiguration configuration,
+			FileSystemRegistry registry, @Nullable FileSystemPool pool, @Nullable AsyncCloser closer)
+			throws IOException {
+		SharedFileSystemKey key = new SharedFileSystemKey(owningContext.getUniqueId(), configuration);
+		try {
+			return owningContext.getStore(NAMESPACE).computeIfAbsent(key, __ -> {
+				try {
+					return new OwnedFileSystem(owningContext.getUniqueId(),
+							openFileSystem(owningContext.getUniqueId(), configuration, registry, pool), pool, closer);
+				}
+				catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}, OwnedFileSystem.class).fileSystem();
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
 	}
 
-	private static JimfsTempDir.Configuration transform(String value) {
-		return JimfsTempDir.Configuration.valueOf(value.trim().toUpperCase(Locale.ROOT));
+	private static FixtureTemplate getFixtureTemplate(ExtensionContext extensionContext, String location)
+			throws IOException {
+		ClassLoader classLoader = extensionContext.getTestClass()
+			.map(Class::getClassLoader)
+			.orElseGet(() -> Thread.currentThread().getContextClassLoader());
+		try {
+			return extensionContext.getRoot().getStore(NAMESPACE).computeIfAbsent(new FixtureKey(location), __ -> {
+				try {
+					return FixtureTemplate.load(location, classLoader);
+				}
+				catch (IOException ex) {
+					throw new UncheckedIOException(ex);
+				}
+			}, FixtureTemplate.class);
+		}
+		catch (UncheckedIOException ex) {
+			throw ex.getCause();
+		}
 	}
 
-	/** {@inheritDoc} */
+	private static FileSystemRegistry getRegistry(ExtensionContext extensionContext) {
+		return extensionContext.getRoot()
+			.getStore(NAMESPACE)
+			.computeIfAbsent(FileSystemRegistry.class, key -> new FileSystemRegistry(), FileSystemRegistry.class);
+	}
+
+	private static PathFileSystems getPathFileSystems(ExtensionContext extensionContext) {
+		return extensionContext.getRoot()
+			.getStore(NAMESPACE)
+			.computeIfAbsent(PathFileSystems.class,
+					key -> new PathFileSystems(
+							configuration -> Jimfs.newFileSystem(createJimfsConfiguration(configuration))),
+					PathFileSystems.class);
+	}
+
+	private static boolean isRetainable(AnnotatedElementContext elementContext, ExtensionContext extensionContext) {
+		CleanupMode cleanupMode = elementContext.findAnnotation(TempDir.class)
+			.map(TempDir::cleanup)
+			.filter(value -> CleanupMode.DEFAULT != value)
+			.or(() -> extensionContext.getConfigurationParameter(TempDir.DEFAULT_CLEANUP_MODE_PROPERTY_NAME,
+					value -> CleanupMode.valueOf(value.trim().toUpperCase(Locale.ROOT))))
+			.orElse(CleanupMode.ALWAYS);
+		return CleanupMode.ALWAYS != cleanupMode;
+	}
+
+	private static RetainedFileSystems getRetention(ExtensionContext extensionContext,
+			ConfigurationParameters parameters) {
+		return extensionContext.getRoot()
+			.getStore(NAMESPACE)
+			.computeIfAbsent(
+					RetainedFileSystems.class, key -> new RetainedFileSystems(parameters.retentionMaxSize(),
+							parameters.retentionOverflowMode(), parameters.retentionArchiveDirectory()),
+					RetainedFileSystems.class);
+	}
+
+	private static FileSystemPool getPool(ExtensionContext extensionContext, ConfigurationParameters parameters) {
+		return extensionContext.getRoot()
+			.getStore(NAMESPACE)
+			.computeIfAbsent(FileSystemPool.class, key -> new FileSystemPool(parameters.poolingMaxSize()),
+					FileSystemPool.class);
+	}
+
+	private static AsyncCloser getCloser(ExtensionContext extensionContext, ConfigurationParameters parameters) {
+		return extensionContext.getRoot()
+			.getStore(NAMESPACE)
+			.computeIfAbsent(AsyncCloser.class,
+					key -> new AsyncCloser(parameters.asyncCloseQueueSize(), parameters.asyncCloseBatchSize()),
+					AsyncCloser.class);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * All the file systems dedicated to the temporary directories created by this factory
+	 * are closed, in reverse creation order, even if closing some of them fails. If the
+	 * {@value JimfsTempDir#ASYNC_CLOSE_ENABLED_PARAMETER_NAME} configuration parameter is
+	 * set to {@code true}, they are handed over to a background thread instead.
+	 */
 	@Override
 	public void close() throws IOException {
-		if (fileSystem != null) {
-			fileSystem.close();
-			fileSystem = null;
+		@Nullable IOException failure = null;
+		for (Closeable fileSystem = fileSystems.pollLast(); fileSystem != null; fileSystem = fileSystems.pollLast()) {
+			try {
+				fileSystem.close();
+			}
+			catch (IOException ex) {
+				if (failure == null) {
+					failure = ex;
+				}
+				else {
+					failure.addSuppressed(ex);
+				}
+			}
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private record SharedFileSystemKey(String uniqueId, ResolvedConfiguration configuration) {
+	}
+
+	private record FixtureKey(String location) {
+	}
+
+	private record RetainableFileSystem(String test, Path tempDir, OwnedFileSystem fileSystem,
+			RetainedFileSystems retention) implements Closeable {
+
+		@Override
+		public void close() throws IOException {
+			if (tempDir.getFileSystem().isOpen() && Files.exists(tempDir)) {
+				retention.retain(test, tempDir, fileSystem);
+			}
+			else {
+				fileSystem.close();
+			}
 		}
+
+	}
+
+	private record OwnedFileSystem(String test, FileSystem fileSystem, @Nullable FileSystemPool pool,
+			@Nullable AsyncCloser closer) implements Closeable {
+
+		@Override
+		public void close() throws IOException {
+			if (closer != null) {
+				closer.submit(this::release);
+			}
+			else {
+				release();
+			}
+		}
+
+		private void release() throws IOException {
+			FlightRecorderEvents.FileSystemClose event = new FlightRecorderEvents.FileSystemClose();
+			String id = event.isEnabled() ? FlightRecorderEvents.getId(fileSystem) : "";
+			event.begin();
+			if (pool != null) {
+				pool.release(fileSystem);
+			}
+			else {
+				FileSystemMonitor.INSTANCE.closing(fileSystem);
+				fileSystem.close();
+			}
+			event.end();
+			if (event.shouldCommit()) {
+				event.test = test;
+				event.fileSystem = id;
+				event.pooled = pool != null;
+				event.commit();
+			}
+		}
+
 	}
 
 }
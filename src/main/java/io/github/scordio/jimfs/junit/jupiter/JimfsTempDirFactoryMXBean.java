@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+/**
+ * Management interface exposing live statistics of the in-memory file systems created by
+ * {@link JimfsTempDirFactory}.
+ *
+ * <p>
+ * The implementation is registered in the platform MBean server with the
+ * {@value #OBJECT_NAME} name when the first file system is created, and aggregates all
+ * the factory instances of the JVM. Counters are updated when file systems are created
+ * and closed, while the stored bytes are measured when read and when file systems are
+ * closed.
+ *
+ * @since 1.1.0
+ */
+public interface JimfsTempDirFactoryMXBean {
+
+	/**
+	 * Object name of the MBean.
+	 */
+	String OBJECT_NAME = "io.github.scordio.jimfs.junit.jupiter:type=JimfsTempDirFactory";
+
+	/**
+	 * Returns the number of file systems currently open.
+	 * @return the number of file systems currently open
+	 */
+	long getLiveFileSystems();
+
+	/**
+	 * Returns the number of file systems created so far.
+	 * @return the number of file systems created so far
+	 */
+	long getCreatedFileSystems();
+
+	/**
+	 * Returns the number of file systems closed so far.
+	 * @return the number of file systems closed so far
+	 */
+	long getClosedFileSystems();
+
+	/**
+	 * Returns the number of bytes currently held by the open file systems, i.e., their
+	 * allocated blocks and their caches of free blocks.
+	 * @return the number of bytes currently held by the open file systems
+	 */
+	long getStoredBytes();
+
+	/**
+	 * Returns the highest number of {@link #getStoredBytes() stored bytes} observed so
+	 * far, updated whenever the stored bytes are read and, for each file system, right
+	 * before it is closed.
+	 * @return the highest number of stored bytes observed so far
+	 */
+	long getPeakStoredBytes();
+
+	/**
+	 * Returns the average number of file systems created per second since the first one
+	 * was created.
+	 * @return the average number of file systems created per second
+	 */
+	double getCreationRate();
+
+	/**
+	 * Returns the average number of file systems closed per second since the first one
+	 * was created.
+	 * @return the average number of file systems closed per second
+	 */
+	double getCloseRate();
+
+	/**
+	 * Returns the average lifetime, in milliseconds, of the closed file systems.
+	 * @return the average lifetime of the closed file systems
+	 */
+	double getAverageLifetime();
+
+}
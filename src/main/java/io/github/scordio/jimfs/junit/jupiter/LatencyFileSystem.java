@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AccessMode;
+import java.nio.file.CopyOption;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link ForwardingFileSystem} delaying the file operations performed via its paths
+ * according to a {@link JimfsTempDir.Latency} model.
+ */
+final class LatencyFileSystem extends ForwardingFileSystem implements ObservedChannels.Listener {
+
+	private final long operationDelay;
+
+	private final long bytesPerSecond;
+
+	private final long jitter;
+
+	private final Random random;
+
+	LatencyFileSystem(FileSystem pathFileSystem, JimfsTempDir.Latency latency) {
+		super(Provider.INSTANCE, pathFileSystem);
+		this.operationDelay = TimeUnit.MICROSECONDS.toNanos(Math.max(latency.operationDelay(), 0));
+		this.bytesPerSecond = latency.bytesPerSecond();
+		this.jitter = TimeUnit.MICROSECONDS.toNanos(Math.max(latency.jitter(), 0));
+		this.random = new Random(latency.seed());
+	}
+
+	static boolean isEnabled(JimfsTempDir.Latency latency) {
+		return latency.operationDelay() > 0 || latency.bytesPerSecond() > 0 || latency.jitter() > 0;
+	}
+
+	@Override
+	public void read(long bytes) throws IOException {
+		delay(bytes);
+	}
+
+	@Override
+	public void written(long bytes) throws IOException {
+		delay(bytes);
+	}
+
+	@Override
+	public void forced() throws IOException {
+		delay(0);
+	}
+
+	@Override
+	public void closed() {
+	}
+
+	void delay(long bytes) throws InterruptedIOException {
+		long nanos = operationDelay;
+		if (jitter > 0) {
+			nanos += random.nextLong(jitter + 1);
+		}
+		if (bytesPerSecond > 0 && bytes > 0) {
+			nanos += (long) (bytes * (double) TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+		}
+		sleep(nanos);
+	}
+
+	private static void sleep(long nanos) throws InterruptedIOException {
+		long deadline = System.nanoTime() + nanos;
+		for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+			LockSupport.parkNanos(remaining);
+			if (Thread.interrupted()) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while delaying a file operation");
+			}
+		}
+	}
+
+	private static final class Provider extends ForwardingFileSystemProvider {
+
+		private static final Provider INSTANCE = new Provider();
+
+		private static LatencyFileSystem fileSystem(Path path) {
+			return (LatencyFileSystem) ForwardingPath.check(path).getFileSystem();
+		}
+
+		@Override
+		public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options,
+				FileAttribute<?>... attrs) throws IOException {
+			LatencyFileSystem fileSystem = fileSystem(path);
+			fileSystem.delay(0);
+			SeekableByteChannel channel = super.newByteChannel(path, options, attrs);
+			return ObservedChannels.observe(channel, fileSystem);
+		}
+
+		@Override
+		public FileChannel newFileChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs)
+				throws IOException {
+			LatencyFileSystem fileSystem = fileSystem(path);
+			fileSystem.delay(0);
+			FileChannel channel = super.newFileChannel(path, options, attrs);
+			return ObservedChannels.observe(channel, fileSystem);
+		}
+
+		@Override
+		public InputStream newInputStream(Path path, OpenOption... options) throws IOException {
+			LatencyFileSystem fileSystem = fileSystem(path);
+			fileSystem.delay(0);
+			InputStream stream = super.newInputStream(path, options);
+			return ObservedChannels.observe(stream, fileSystem);
+		}
+
+		@Override
+		public OutputStream newOutputStream(Path path, OpenOption... options) throws IOException {
+			LatencyFileSystem fileSystem = fileSystem(path);
+			fileSystem.delay(0);
+			OutputStream stream = super.newOutputStream(path, options);
+			return ObservedChannels.observe(stream, fileSystem);
+		}
+
+		@Override
+		public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter)
+				throws IOException {
+			LatencyFileSystem fileSystem = fileSystem(dir);
+			fileSystem.delay(0);
+			return super.newDirectoryStream(dir, filter);
+		}
+
+		@Override
+		public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
+			fileSystem(dir).delay(0);
+			super.createDirectory(dir, attrs);
+		}
+
+		@Override
+		public void createSymbolicLink(Path link, Path target, FileAttribute<?>... attrs) throws IOException {
+			fileSystem(link).delay(0);
+			super.createSymbolicLink(link, target, attrs);
+		}
+
+		@Override
+		public void createLink(Path link, Path existing) throws IOException {
+			fileSystem(link).delay(0);
+			super.createLink(link, existing);
+		}
+
+		@Override
+		public void delete(Path path) throws IOException {
+			fileSystem(path).delay(0);
+			super.delete(path);
+		}
+
+		@Override
+		public Path readSymbolicLink(Path link) throws IOException {
+			fileSystem(link).delay(0);
+			return super.readSymbolicLink(link);
+		}
+
+		@Override
+		public void copy(Path source, Path target, CopyOption... options) throws IOException {
+			LatencyFileSystem fileSystem = fileSystem(source);
+			super.copy(source, target, options);
+			BasicFileAttributes attributes = super.readAttributes(target, BasicFileAttributes.class,
+					LinkOption.NOFOLLOW_LINKS);
+			fileSystem.delay(attributes.isRegularFile() ? attributes.size() : 0);
+		}
+
+		@Override
+		public void move(Path source, Path target, CopyOption... options) throws IOException {
+			fileSystem(source).delay(0);
+			super.move(source, target, options);
+		}
+
+		@Override
+		public boolean isSameFile(Path path, Path path2) throws IOException {
+			fileSystem(path).delay(0);
+			return super.isSameFile(path, path2);
+		}
+
+		@Override
+		public boolean isHidden(Path path) throws IOException {
+			fileSystem(path).delay(0);
+			return super.isHidden(path);
+		}
+
+		@Override
+		public void checkAccess(Path path, AccessMode... modes) throws IOException {
+			fileSystem(path).delay(0);
+			super.checkAccess(path, modes);
+		}
+
+		@Override
+		public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options)
+				throws IOException {
+			fileSystem(path).delay(0);
+			return super.readAttributes(path, type, options);
+		}
+
+		@Override
+		public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options)
+				throws IOException {
+			fileSystem(path).delay(0);
+			return super.readAttributes(path, attributes, options);
+		}
+
+		@Override
+		public void setAttribute(Path path, String attribute, Object value, LinkOption... options) throws IOException {
+			fileSystem(path).delay(0);
+			super.setAttribute(path, attribute, value, options);
+		}
+
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.AccessMode;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * {@link ForwardingFileSystem} whose target file system, together with its temporary
+ * directory, is only materialized on the first operation accessing it.
+ *
+ * <p>
+ * Until then, the temporary directory is reported as an existing, empty directory, which
+ * can also be deleted without materializing the file system. This covers the checks and
+ * the cleanup performed by JUnit on temporary directories that are never used.
+ */
+final class LazyFileSystem extends ForwardingFileSystem {
+
+	private final Path tempDirectory;
+
+	private final Materializer materializer;
+
+	private final FileTime creationTime = FileTime.fromMillis(System.currentTimeMillis());
+
+	private volatile @Nullable FileSystem target;
+
+	private volatile boolean deleted;
+
+	private volatile boolean closed;
+
+	LazyFileSystem(FileSystem pathFileSystem, String tempDirectoryPath, Materializer materializer) {
+		super(Provider.INSTANCE, pathFileSystem);
+		this.tempDirectory = pathFileSystem.getPath(tempDirectoryPath);
+		this.materializer = materializer;
+	}
+
+	Path getTempDirectory() {
+		return wrap(tempDirectory);
+	}
+
+	boolean isMaterialized() {
+		return target != null;
+	}
+
+	@Override
+	FileSystem target() throws IOException {
+		FileSystem fileSystem = target;
+		if (fileSystem == null) {
+			synchronized (this) {
+				fileSystem = target;
+				if (fileSystem == null) {
+					if (closed) {
+						throw new ClosedFileSystemException();
+					}
+					fileSystem = materializer.materialize(deleted ? null : tempDirectory.toString());
+					target = fileSystem;
+				}
+			}
+		}
+		return fileSystem;
+	}
+
+	@Override
+	@SuppressWarnings("ReferenceEquality")
+	boolean isUnderlying(FileSystem fileSystem) {
+		return fileSystem == target || super.isUnderlying(fileSystem);
+	}
+
+	private boolean isPendingTempDirectory(Path path) throws IOException {
+		if (target != null) {
+			return false;
+		}
+		if (closed) {
+			throw new ClosedFileSystemException();
+		}
+		if (!ForwardingPath.check(path).delegate().toAbsolutePath().normalize().equals(tempDirectory)) {
+			return false;
+		}
+		if (deleted) {
+			throw new NoSuchFileException(path.toString());
+		}
+		return true;
+	}
+
+	@Override
+	Path toRealPath(ForwardingPath path, LinkOption... options) throws IOException {
+		return isPendingTempDirectory(path) ? wrap(tempDirectory) : super.toRealPath(path, options);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		FileSystem fileSystem = target;
+		if (fileSystem != null) {
+			materializer.release(fileSystem);
+		}
+	}
+
+	@Override
+	public boolean isOpen() {
+		FileSystem fileSystem = target;
+		return fileSystem != null ? fileSystem.isOpen() : !closed;
+	}
+
+	/**
+	 * Materialization strategy of the target file system.
+	 */
+	interface Materializer {
+
+		/**
+		 * Open the target file system.
+		 * @param tempDirectory the path of the temporary directory to create, or
+		 * {@code null} if it was deleted before materialization
+		 * @return the target file system
+		 * @throws IOException if the file system cannot be opened
+		 */
+		FileSystem materialize(@Nullable String tempDirectory) throws IOException;
+
+		/**
+		 * Release the target file system once the lazy file system is closed.
+		 * @param fileSystem the target file system
+		 * @throws IOException if the file system cannot be released
+		 */
+		void release(FileSystem fileSystem) throws IOException;
+
+	}
+
+	private static final class Provider extends ForwardingFileSystemProvider {
+
+		private static final Provider INSTANCE = new Provider();
+
+		private static LazyFileSystem getFileSystem(Path path) {
+			return (LazyFileSystem) ForwardingPath.check(path).getFileSystem();
+		}
+
+		@Override
+		public void checkAccess(Path path, AccessMode... modes) throws IOException {
+			if (!getFileSystem(path).isPendingTempDirectory(path)) {
+				super.checkAccess(path, modes);
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options)
+				throws IOException {
+			LazyFileSystem fileSystem = getFileSystem(path);
+			if (type == BasicFileAttributes.class && fileSystem.isPendingTempDirectory(path)) {
+				return (A) new EmptyDirectoryAttributes(fileSystem.creationTime);
+			}
+			return super.readAttributes(path, type, options);
+		}
+
+		@Override
+		public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter)
+				throws IOException {
+			if (getFileSystem(dir).isPendingTempDirectory(dir)) {
+				return new DirectoryStream<>() {
+
+					@Override
+					public Iterator<Path> iterator() {
+						return Collections.emptyIterator();
+					}
+
+					@Override
+					public void close() {
+					}
+
+				};
+			}
+			return super.newDirectoryStream(dir, filter);
+		}
+
+		@Override
+		public void delete(Path path) throws IOException {
+			LazyFileSystem fileSystem = getFileSystem(path);
+			synchronized (fileSystem) {
+				if (fileSystem.isPendingTempDirectory(path)) {
+					fileSystem.deleted = true;
+					return;
+				}
+			}
+			super.delete(path);
+		}
+
+	}
+
+	private record EmptyDirectoryAttributes(FileTime creationTime) implements BasicFileAttributes {
+
+		@Override
+		public FileTime lastModifiedTime() {
+			return creationTime;
+		}
+
+		@Override
+		public FileTime lastAccessTime() {
+			return creationTime;
+		}
+
+		@Override
+		public boolean isRegularFile() {
+			return false;
+		}
+
+		@Override
+		public boolean isDirectory() {
+			return true;
+		}
+
+		@Override
+		public boolean isSymbolicLink() {
+			return false;
+		}
+
+		@Override
+		public boolean isOther() {
+			return false;
+		}
+
+		@Override
+		public long size() {
+			return 0;
+		}
+
+		@Override
+		public @Nullable Object fileKey() {
+			return null;
+		}
+
+	}
+
+}
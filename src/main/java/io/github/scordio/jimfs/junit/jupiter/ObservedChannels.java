@@ -0,0 +1,428 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Wrappers of channels and streams notifying a {@link Listener} of the operations
+ * performed via them.
+ */
+final class ObservedChannels {
+
+	private ObservedChannels() {
+	}
+
+	static SeekableByteChannel observe(SeekableByteChannel channel, Listener listener) {
+		return channel instanceof FileChannel fileChannel ? new ObservedFileChannel(fileChannel, listener)
+				: new ObservedByteChannel(channel, listener);
+	}
+
+	static FileChannel observe(FileChannel channel, Listener listener) {
+		return new ObservedFileChannel(channel, listener);
+	}
+
+	static InputStream observe(InputStream stream, Listener listener) {
+		return new ObservedInputStream(stream, listener);
+	}
+
+	static OutputStream observe(OutputStream stream, Listener listener) {
+		return new ObservedOutputStream(stream, listener);
+	}
+
+	static DirectoryStream<Path> observe(DirectoryStream<Path> stream, Listener listener) {
+		return new ObservedDirectoryStream(stream, listener);
+	}
+
+	/**
+	 * Listener of the operations performed via a channel or stream, notified once each
+	 * operation completes.
+	 */
+	interface Listener {
+
+		/**
+		 * Notifies a read operation.
+		 * @param bytes the number of bytes read, or a negative value if the end of the
+		 * stream was reached
+		 * @throws IOException if the operation must fail
+		 */
+		void read(long bytes) throws IOException;
+
+		/**
+		 * Notifies a write operation.
+		 * @param bytes the number of bytes written
+		 * @throws IOException if the operation must fail
+		 */
+		void written(long bytes) throws IOException;
+
+		/**
+		 * Notifies a forced write of the channel content to the storage.
+		 * @throws IOException if the operation must fail
+		 */
+		void forced() throws IOException;
+
+		/**
+		 * Notifies a failed write operation.
+		 * @param ex the failure of the operation
+		 * @return the exception to be thrown instead, {@code ex} by default
+		 */
+		default IOException writeFailed(IOException ex) {
+			return ex;
+		}
+
+		/**
+		 * Notifies the closing of the channel or stream.
+		 */
+		void closed();
+
+	}
+
+	private static final class ObservedByteChannel implements SeekableByteChannel {
+
+		private final SeekableByteChannel delegate;
+
+		private final Listener listener;
+
+		private ObservedByteChannel(SeekableByteChannel delegate, Listener listener) {
+			this.delegate = delegate;
+			this.listener = listener;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			int read = delegate.read(dst);
+			listener.read(read);
+			return read;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			int written;
+			try {
+				written = delegate.write(src);
+			}
+			catch (IOException ex) {
+				throw listener.writeFailed(ex);
+			}
+			listener.written(written);
+			return written;
+		}
+
+		@Override
+		public long position() throws IOException {
+			return delegate.position();
+		}
+
+		@Override
+		public SeekableByteChannel position(long newPosition) throws IOException {
+			delegate.position(newPosition);
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			return delegate.size();
+		}
+
+		@Override
+		public SeekableByteChannel truncate(long size) throws IOException {
+			delegate.truncate(size);
+			return this;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return delegate.isOpen();
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+			listener.closed();
+		}
+
+	}
+
+	private static final class ObservedFileChannel extends FileChannel {
+
+		private final FileChannel delegate;
+
+		private final Listener listener;
+
+		private ObservedFileChannel(FileChannel delegate, Listener listener) {
+			this.delegate = delegate;
+			this.listener = listener;
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			int read = delegate.read(dst);
+			listener.read(read);
+			return read;
+		}
+
+		@Override
+		public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+			long read = delegate.read(dsts, offset, length);
+			listener.read(read);
+			return read;
+		}
+
+		@Override
+		public int read(ByteBuffer dst, long position) throws IOException {
+			int read = delegate.read(dst, position);
+			listener.read(read);
+			return read;
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			int written;
+			try {
+				written = delegate.write(src);
+			}
+			catch (IOException ex) {
+				throw listener.writeFailed(ex);
+			}
+			listener.written(written);
+			return written;
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			long written;
+			try {
+				written = delegate.write(srcs, offset, length);
+			}
+			catch (IOException ex) {
+				throw listener.writeFailed(ex);
+			}
+			listener.written(written);
+			return written;
+		}
+
+		@Override
+		public int write(ByteBuffer src, long position) throws IOException {
+			int written;
+			try {
+				written = delegate.write(src, position);
+			}
+			catch (IOException ex) {
+				throw listener.writeFailed(ex);
+			}
+			listener.written(written);
+			return written;
+		}
+
+		@Override
+		public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+			long transferred = delegate.transferTo(position, count, target);
+			listener.read(transferred);
+			return transferred;
+		}
+
+		@Override
+		public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+			long transferred;
+			try {
+				transferred = delegate.transferFrom(src, position, count);
+			}
+			catch (IOException ex) {
+				throw listener.writeFailed(ex);
+			}
+			listener.written(transferred);
+			return transferred;
+		}
+
+		@Override
+		public long position() throws IOException {
+			return delegate.position();
+		}
+
+		@Override
+		public FileChannel position(long newPosition) throws IOException {
+			delegate.position(newPosition);
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			return delegate.size();
+		}
+
+		@Override
+		public FileChannel truncate(long size) throws IOException {
+			delegate.truncate(size);
+			return this;
+		}
+
+		@Override
+		public void force(boolean metaData) throws IOException {
+			delegate.force(metaData);
+			listener.forced();
+		}
+
+		@Override
+		public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+			return delegate.map(mode, position, size);
+		}
+
+		@Override
+		public FileLock lock(long position, long size, boolean shared) throws IOException {
+			return delegate.lock(position, size, shared);
+		}
+
+		@Override
+		public @Nullable FileLock tryLock(long position, long size, boolean shared) throws IOException {
+			return delegate.tryLock(position, size, shared);
+		}
+
+		@Override
+		protected void implCloseChannel() throws IOException {
+			delegate.close();
+			listener.closed();
+		}
+
+	}
+
+	private static final class ObservedInputStream extends InputStream {
+
+		private final InputStream delegate;
+
+		private final Listener listener;
+
+		private ObservedInputStream(InputStream delegate, Listener listener) {
+			this.delegate = delegate;
+			this.listener = listener;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = delegate.read();
+			listener.read(read == -1 ? -1 : 1);
+			return read;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = delegate.read(b, off, len);
+			listener.read(read);
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			return delegate.skip(n);
+		}
+
+		@Override
+		public int available() throws IOException {
+			return delegate.available();
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+			listener.closed();
+		}
+
+	}
+
+	private static final class ObservedOutputStream extends OutputStream {
+
+		private final OutputStream delegate;
+
+		private final Listener listener;
+
+		private ObservedOutputStream(OutputStream delegate, Listener listener) {
+			this.delegate = delegate;
+			this.listener = listener;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			try {
+				delegate.write(b);
+			}
+			catch (IOException ex) {
+				throw listener.writeFailed(ex);
+			}
+			listener.written(1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			try {
+				delegate.write(b, off, len);
+			}
+			catch (IOException ex) {
+				throw listener.writeFailed(ex);
+			}
+			listener.written(len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			delegate.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+			listener.closed();
+		}
+
+	}
+
+	private static final class ObservedDirectoryStream implements DirectoryStream<Path> {
+
+		private final DirectoryStream<Path> delegate;
+
+		private final Listener listener;
+
+		private ObservedDirectoryStream(DirectoryStream<Path> delegate, Listener listener) {
+			this.delegate = delegate;
+			this.listener = listener;
+		}
+
+		@Override
+		public Iterator<Path> iterator() {
+			return delegate.iterator();
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+			listener.closed();
+		}
+
+	}
+
+}
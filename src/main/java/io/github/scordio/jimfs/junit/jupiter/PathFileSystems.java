@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * File systems backing the paths of the lazy temporary directories before their
+ * materialization, one per configuration.
+ *
+ * <p>
+ * Such file systems only provide the path syntax of the configuration and never store any
+ * file. They are shared by all the lazy temporary directories of an engine execution and
+ * closed once it completes.
+ */
+final class PathFileSystems implements AutoCloseable {
+
+	private final Map<ResolvedConfiguration, FileSystem> fileSystems = new ConcurrentHashMap<>();
+
+	private final Function<ResolvedConfiguration, FileSystem> factory;
+
+	PathFileSystems(Function<ResolvedConfiguration, FileSystem> factory) {
+		this.factory = factory;
+	}
+
+	FileSystem get(ResolvedConfiguration configuration) {
+		return fileSystems.computeIfAbsent(configuration, factory);
+	}
+
+	@Override
+	public void close() throws IOException {
+		@Nullable IOException failure = null;
+		for (FileSystem fileSystem : fileSystems.values()) {
+			try {
+				fileSystem.close();
+			}
+			catch (IOException ex) {
+				if (failure == null) {
+					failure = ex;
+				}
+				else {
+					failure.addSuppressed(ex);
+				}
+			}
+		}
+		fileSystems.clear();
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+}
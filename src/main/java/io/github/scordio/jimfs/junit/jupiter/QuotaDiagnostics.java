@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diagnostics for the failures caused by temporary directories exceeding the maximum size
+ * of their in-memory file system.
+ *
+ * <p>
+ * When a write operation performed via a {@link QuotaFileSystem} fails because the file
+ * system ran out of space, the failure is replaced with an {@link IOException} naming the
+ * test owning the temporary directory, the maximum size of the file system and the
+ * largest files of the temporary directory.
+ */
+final class QuotaDiagnostics {
+
+	private static final String OUT_OF_DISK_SPACE_MESSAGE = "out of disk space";
+
+	private static final int LARGEST_FILES_LIMIT = 5;
+
+	private QuotaDiagnostics() {
+	}
+
+	/**
+	 * Describe the test owning a temporary directory, as named by the diagnostics.
+	 * @param extensionContext the context where the temporary directory is created
+	 * @return the description of the owning test
+	 */
+	static String describeOwner(ExtensionContext extensionContext) {
+		StringBuilder owner = new StringBuilder("Test '").append(extensionContext.getDisplayName()).append("'");
+		extensionContext.getTestClass().ifPresent(testClass -> owner.append(" of ").append(testClass.getName()));
+		return owner.toString();
+	}
+
+	static IOException enrich(String owner, Path tempDir, IOException failure) {
+		if (!isOutOfDiskSpace(failure)) {
+			return failure;
+		}
+
+		StringBuilder message = new StringBuilder(owner)
+			.append(" exceeded the maximum size of its in-memory file system");
+
+		List<Map.Entry<Path, Long>> files = new ArrayList<>();
+		try {
+			message.append(System.lineSeparator())
+				.append("  ")
+				.append(tempDir)
+				.append(": ")
+				.append(Files.getFileStore(tempDir).getTotalSpace())
+				.append(" bytes max size");
+			files.addAll(listFiles(tempDir));
+		}
+		catch (IOException ex) {
+			failure.addSuppressed(ex);
+		}
+
+		if (!files.isEmpty()) {
+			message.append(System.lineSeparator()).append("Largest files:");
+			files.stream()
+				.sorted(Map.Entry.<Path, Long>comparingByValue(Comparator.reverseOrder()))
+				.limit(LARGEST_FILES_LIMIT)
+				.forEach(file -> message.append(System.lineSeparator())
+					.append("  ")
+					.append(file.getKey())
+					.append(": ")
+					.append(file.getValue())
+					.append(" bytes"));
+		}
+
+		return new IOException(message.toString(), failure);
+	}
+
+	private static boolean isOutOfDiskSpace(@Nullable Throwable throwable) {
+		for (Throwable current = throwable; current != null; current = current.getCause()) {
+			if (current instanceof IOException && OUT_OF_DISK_SPACE_MESSAGE.equals(current.getMessage())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<Map.Entry<Path, Long>> listFiles(Path directory) throws IOException {
+		List<Map.Entry<Path, Long>> files = new ArrayList<>();
+		Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+				if (attributes.isRegularFile()) {
+					files.add(Map.entry(file, attributes.size()));
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+		});
+		return files;
+	}
+
+}
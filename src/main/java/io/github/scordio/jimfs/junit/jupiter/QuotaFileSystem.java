@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.CopyOption;
+import java.nio.file.FileSystem;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
+import java.util.Set;
+
+/**
+ * {@link ForwardingFileSystem} reporting the write operations performed via its paths
+ * that exceed the maximum size of the file system with {@link QuotaDiagnostics}.
+ */
+final class QuotaFileSystem extends ForwardingFileSystem implements ObservedChannels.Listener {
+
+	private final String owner;
+
+	private final Path tempDir;
+
+	QuotaFileSystem(Path tempDir, String owner) {
+		super(Provider.INSTANCE, tempDir.getFileSystem());
+		this.owner = owner;
+		this.tempDir = tempDir;
+	}
+
+	@Override
+	public void read(long bytes) {
+	}
+
+	@Override
+	public void written(long bytes) {
+	}
+
+	@Override
+	public void forced() {
+	}
+
+	@Override
+	public void closed() {
+	}
+
+	@Override
+	public IOException writeFailed(IOException ex) {
+		return QuotaDiagnostics.enrich(owner, tempDir, ex);
+	}
+
+	private static final class Provider extends ForwardingFileSystemProvider {
+
+		private static final Provider INSTANCE = new Provider();
+
+		private static QuotaFileSystem fileSystem(Path path) {
+			return (QuotaFileSystem) ForwardingPath.check(path).getFileSystem();
+		}
+
+		@Override
+		public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options,
+				FileAttribute<?>... attrs) throws IOException {
+			return ObservedChannels.observe(super.newByteChannel(path, options, attrs), fileSystem(path));
+		}
+
+		@Override
+		public FileChannel newFileChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs)
+				throws IOException {
+			return ObservedChannels.observe(super.newFileChannel(path, options, attrs), fileSystem(path));
+		}
+
+		@Override
+		public OutputStream newOutputStream(Path path, OpenOption... options) throws IOException {
+			return ObservedChannels.observe(super.newOutputStream(path, options), fileSystem(path));
+		}
+
+		@Override
+		public void copy(Path source, Path target, CopyOption... options) throws IOException {
+			try {
+				super.copy(source, target, options);
+			}
+			catch (IOException ex) {
+				throw fileSystem(source).writeFailed(ex);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Configuration of an in-memory file system after resolving the annotation attributes and
+ * the configuration parameters.
+ *
+ * <p>
+ * Being a value object, instances can be used as keys when sharing or pooling file
+ * systems.
+ *
+ * @param preset the configuration preset, never
+ * {@link JimfsTempDir.Configuration#DEFAULT}
+ * @param blockSize the block size, or {@link #UNSET} to keep the one of the preset
+ * @param maxSize the maximum size, or {@link #UNSET} to keep the one of the preset
+ * @param maxCacheSize the maximum cache size, or {@link #UNSET} to keep the one of the
+ * preset
+ * @param attributeViews the attribute views, or an empty set to keep the ones of the
+ * preset
+ * @param watchServicePollingInterval the polling interval of the watch services, in
+ * milliseconds, or {@link #UNSET} to keep the one of the preset
+ * @param nameDisplayNormalization the display normalizations, or an empty list to keep
+ * the ones of the preset
+ * @param nameCanonicalNormalization the canonical normalizations, or an empty list to
+ * keep the ones of the preset
+ * @param pathEquality the form used for path equality, possibly
+ * {@link JimfsTempDir.PathEquality#DEFAULT} to keep the one of the preset
+ */
+record ResolvedConfiguration(JimfsTempDir.Configuration preset, int blockSize, long maxSize, long maxCacheSize,
+		Set<String> attributeViews, long watchServicePollingInterval,
+		List<JimfsTempDir.PathNormalization> nameDisplayNormalization,
+		List<JimfsTempDir.PathNormalization> nameCanonicalNormalization, JimfsTempDir.PathEquality pathEquality) {
+
+	static final int UNSET = -1;
+
+	/**
+	 * Return this configuration with the given maximum cache size, unless one is already
+	 * set.
+	 * @param maxCacheSize the maximum cache size to apply if unset
+	 * @return the configuration with a maximum cache size
+	 */
+	ResolvedConfiguration withDefaultMaxCacheSize(long maxCacheSize) {
+		return this.maxCacheSize != UNSET ? this
+				: new ResolvedConfiguration(preset, blockSize, maxSize, maxCacheSize, attributeViews,
+						watchServicePollingInterval, nameDisplayNormalization, nameCanonicalNormalization,
+						pathEquality);
+	}
+
+}
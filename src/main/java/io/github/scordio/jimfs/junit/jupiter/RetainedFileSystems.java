@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.System.Logger.Level;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * File systems of the temporary directories retained because of their cleanup mode,
+ * bounded by a maximum amount of memory.
+ *
+ * <p>
+ * File systems are kept open in retention order, and the oldest ones are evicted while
+ * the memory held by all of them exceeds the maximum, either discarding them with a
+ * warning or archiving the content of their temporary directory to a ZIP file named after
+ * the unique identifier of the test. The remaining ones are evicted once the engine
+ * execution completes, archiving them only if archiving is enabled. The memory held by a
+ * file system includes its cached blocks, as measured by
+ * {@link FileSystemMonitor#getStoredBytes(java.nio.file.FileSystem)}.
+ */
+final class RetainedFileSystems implements AutoCloseable {
+
+	private static final System.Logger LOGGER = System.getLogger(RetainedFileSystems.class.getName());
+
+	private static final Pattern UNSAFE_CHARACTERS = Pattern.compile("[^A-Za-z0-9._-]+");
+
+	private static final int MAX_TEST_NAME_LENGTH = 160;
+
+	private final long maxSize;
+
+	private final ConfigurationParameters.RetentionOverflowMode overflowMode;
+
+	private final Path archiveDirectory;
+
+	private final Deque<Retained> retained = new ArrayDeque<>();
+
+	private long size;
+
+	RetainedFileSystems(long maxSize, ConfigurationParameters.RetentionOverflowMode overflowMode,
+			Path archiveDirectory) {
+		this.maxSize = maxSize;
+		this.overflowMode = overflowMode;
+		this.archiveDirectory = archiveDirectory;
+	}
+
+	void retain(String test, Path tempDir, Closeable fileSystem) throws IOException {
+		long storedBytes = FileSystemMonitor.getStoredBytes(tempDir.getFileSystem());
+
+		List<Retained> evicted = new ArrayList<>();
+		synchronized (this) {
+			retained.addLast(new Retained(test, tempDir, fileSystem, storedBytes));
+			size += storedBytes;
+			while (size > maxSize && !retained.isEmpty()) {
+				Retained oldest = retained.removeFirst();
+				size -= oldest.storedBytes();
+				evicted.add(oldest);
+			}
+		}
+
+		evict(evicted, true);
+	}
+
+	@Override
+	public void close() throws IOException {
+		List<Retained> evicted;
+		synchronized (this) {
+			evicted = new ArrayList<>(retained);
+			retained.clear();
+			size = 0;
+		}
+
+		evict(evicted, false);
+	}
+
+	private void evict(List<Retained> evicted, boolean overflow) throws IOException {
+		@Nullable IOException failure = null;
+		for (Retained oldest : evicted) {
+			failure = addFailure(failure, evict(oldest, overflow));
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private @Nullable IOException evict(Retained evicted, boolean overflow) {
+		@Nullable IOException failure = null;
+		try {
+			if (overflowMode == ConfigurationParameters.RetentionOverflowMode.ARCHIVE) {
+				Path archive = archive(evicted.test(), evicted.tempDir());
+				LOGGER.log(Level.INFO, "Archived retained temporary directory " + evicted.tempDir().toUri() + " of "
+						+ evicted.test() + " to " + archive.toUri());
+			}
+			else if (overflow) {
+				LOGGER.log(Level.WARNING,
+						"Discarded retained temporary directory " + evicted.tempDir().toUri() + " of " + evicted.test()
+								+ " (" + evicted.storedBytes() + " bytes), exceeding the retention max size of "
+								+ maxSize + " bytes");
+			}
+		}
+		catch (IOException ex) {
+			failure = ex;
+		}
+		try {
+			evicted.fileSystem().close();
+		}
+		catch (IOException ex) {
+			failure = addFailure(failure, ex);
+		}
+		return failure;
+	}
+
+	private Path archive(String test, Path tempDir) throws IOException {
+		Files.createDirectories(archiveDirectory);
+		Path archive = archiveDirectory.resolve(archiveName(test, tempDir));
+		String separator = tempDir.getFileSystem().getSeparator();
+		try (OutputStream out = Files.newOutputStream(archive, StandardOpenOption.CREATE_NEW);
+				ZipOutputStream zip = new ZipOutputStream(out);
+				Stream<Path> paths = Files.walk(tempDir)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				String name = tempDir.relativize(path).toString().replace(separator, "/");
+				if (name.isEmpty()) {
+					continue;
+				}
+				if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+					zip.putNextEntry(new ZipEntry(name + "/"));
+				}
+				else if (Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+					zip.putNextEntry(new ZipEntry(name));
+					Files.copy(path, zip);
+				}
+				else {
+					continue;
+				}
+				zip.closeEntry();
+			}
+		}
+		return archive;
+	}
+
+	/**
+	 * Return the name of the archive of a temporary directory, made of the unique
+	 * identifier of its test, restricted to the characters allowed in file names on every
+	 * platform and to its trailing {@value #MAX_TEST_NAME_LENGTH} characters, followed by
+	 * the name of the temporary directory.
+	 */
+	private static String archiveName(String test, Path tempDir) {
+		String name = UNSAFE_CHARACTERS.matcher(test).replaceAll("_");
+		if (name.length() > MAX_TEST_NAME_LENGTH) {
+			name = name.substring(name.length() - MAX_TEST_NAME_LENGTH);
+		}
+		return name + "-" + tempDir.getFileName() + ".zip";
+	}
+
+	private static @Nullable IOException addFailure(@Nullable IOException failure, @Nullable IOException ex) {
+		if (failure == null) {
+			return ex;
+		}
+		if (ex != null) {
+			failure.addSuppressed(ex);
+		}
+		return failure;
+	}
+
+	private record Retained(String test, Path tempDir, Closeable fileSystem, long storedBytes) {
+	}
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.jimfs.junit.jupiter;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Snapshot of the content of a temporary directory, which can be restored to roll back
+ * the changes made afterwards.
+ *
+ * <p>
+ * Restoring a snapshot resets only the entries that changed since the snapshot was
+ * captured or last restored: entries added afterwards are deleted, entries deleted
+ * afterwards are recreated, and files whose identity, size or last modified time differ
+ * are rewritten. Unchanged entries are left untouched.
+ *
+ * <p>
+ * Snapshots are particularly useful with a temporary directory shared by multiple
+ * invocations, like a {@code static} field annotated with {@link JimfsTempDir}, that is
+ * expensive to populate: the directory can be populated and captured once in a
+ * {@code @BeforeAll} method, then restored in a {@code @BeforeEach} method.
+ *
+ * <p>
+ * The content of the files is kept in memory by the snapshot. Regular files, directories
+ * and symbolic links are supported, while file attributes other than the last modified
+ * time are not restored. Instances are not thread-safe.
+ *
+ * @since 1.1.0
+ */
+public final class TempDirSnapshot {
+
+	private final Path directory;
+
+	private final Map<Path, Entry> entries;
+
+	private TempDirSnapshot(Path directory, Map<Path, Entry> entries) {
+		this.directory = directory;
+		this.entries = entries;
+	}
+
+	/**
+	 * Capture a snapshot of the given directory.
+	 * @param directory the directory to capture
+	 * @return the snapshot of the directory
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static TempDirSnapshot capture(Path directory) throws IOException {
+		if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+			throw new NotDirectoryException(directory.toString());
+		}
+
+		Map<Path, Entry> entries = new LinkedHashMap<>();
+		Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+				if (!dir.equals(directory)) {
+					entries.put(directory.relativize(dir), Entry.of(attributes, null));
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+				Object content = attributes.isSymbolicLink() ? Files.readSymbolicLink(file) : Files.readAllBytes(file);
+				entries.put(directory.relativize(file), Entry.of(attributes, content));
+				return FileVisitResult.CONTINUE;
+			}
+
+		});
+		return new TempDirSnapshot(directory, entries);
+	}
+
+	/**
+	 * Return the directory this snapshot was captured from.
+	 * @return the directory of the snapshot
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Restore the directory to the state captured by this snapshot.
+	 * @return the number of entries that were deleted, created or rewritten
+	 * @throws IOException if an I/O error occurs
+	 */
+	public int restore() throws IOException {
+		int restored = deleteUnexpectedEntries();
+
+		List<Map.Entry<Path, Entry>> directories = new ArrayList<>();
+		for (Map.Entry<Path, Entry> mapEntry : entries.entrySet()) {
+			Path path = directory.resolve(mapEntry.getKey());
+			Entry entry = mapEntry.getValue();
+			@Nullable BasicFileAttributes attributes = readAttributes(path);
+
+			if (entry.type() == Type.DIRECTORY) {
+				if (attributes == null) {
+					Files.createDirectory(path);
+					restored++;
+				}
+				directories.add(mapEntry);
+			}
+			else if (attributes == null || !entry.matches(attributes)) {
+				if (entry.content() instanceof Path target) {
+					Files.deleteIfExists(path);
+					Files.createSymbolicLink(path, target);
+				}
+				else if (entry.content() instanceof byte[] bytes) {
+					Files.write(path, bytes);
+					Files.setLastModifiedTime(path, entry.lastModifiedTime());
+				}
+				mapEntry
+					.setValue(Entry.of(Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS),
+							entry.content()));
+				restored++;
+			}
+		}
+
+		for (int i = directories.size() - 1; i >= 0; i--) {
+			Path path = directory.resolve(directories.get(i).getKey());
+			FileTime lastModifiedTime = directories.get(i).getValue().lastModifiedTime();
+			if (!lastModifiedTime.equals(Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS))) {
+				Files.setLastModifiedTime(path, lastModifiedTime);
+			}
+		}
+
+		return restored;
+	}
+
+	private int deleteUnexpectedEntries() throws IOException {
+		int[] deleted = { 0 };
+		Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+				if (dir.equals(directory)) {
+					return FileVisitResult.CONTINUE;
+				}
+				Entry entry = entries.get(directory.relativize(dir));
+				if (entry != null && entry.type() == Type.DIRECTORY) {
+					return FileVisitResult.CONTINUE;
+				}
+				deleteRecursively(dir);
+				deleted[0]++;
+				return FileVisitResult.SKIP_SUBTREE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+				Entry entry = entries.get(directory.relativize(file));
+				if (entry == null || entry.type() != Type.of(attributes)) {
+					Files.delete(file);
+					deleted[0]++;
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+		});
+		return deleted[0];
+	}
+
+	private static @Nullable BasicFileAttributes readAttributes(Path path) throws IOException {
+		try {
+			return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		}
+		catch (NoSuchFileException ex) {
+			return null;
+		}
+	}
+
+	private static void deleteRecursively(Path path) throws IOException {
+		Files.walkFileTree(path, new SimpleFileVisitor<>() {
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, @Nullable IOException exception) throws IOException {
+				if (exception != null) {
+					throw exception;
+				}
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+
+		});
+	}
+
+	private enum Type {
+
+		DIRECTORY, FILE, SYMBOLIC_LINK;
+
+		static Type of(BasicFileAttributes attributes) {
+			if (attributes.isDirectory()) {
+				return DIRECTORY;
+			}
+			return attributes.isSymbolicLink() ? SYMBOLIC_LINK : FILE;
+		}
+
+	}
+
+	private record Entry(Type type, @Nullable Object fileKey, FileTime lastModifiedTime, long size,
+			@Nullable Object content) {
+
+		static Entry of(BasicFileAttributes attributes, @Nullable Object content) {
+			return new Entry(Type.of(attributes), attributes.fileKey(), attributes.lastModifiedTime(),
+					attributes.size(), content);
+		}
+
+		boolean matches(BasicFileAttributes attributes) {
+			return type == Type.of(attributes) && Objects.equals(fileKey, attributes.fileKey())
+					&& size == attributes.size() && lastModifiedTime.equals(attributes.lastModifiedTime());
+		}
+
+	}
+
+}
@@ -24,6 +24,10 @@ module io.github.scordio.jimfs.junit.jupiter {
 
 	requires transitive com.google.common.jimfs;
 
+	requires java.management;
+
+	requires jdk.jfr;
+
 	requires org.junit.jupiter.api;
 
 	exports io.github.scordio.jimfs.junit.jupiter;
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.tests.jimfs.junit.jupiter;
+
+import io.github.scordio.jimfs.junit.jupiter.IoBudget;
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDir;
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDirFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentest4j.AssertionFailedError;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static io.github.scordio.tests.jimfs.junit.jupiter.JupiterEngineTestKit.executeTestsForClass;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.DSYNC;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.platform.testkit.engine.EventConditions.finishedWithFailure;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.instanceOf;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.message;
+
+@DisplayName("IoBudget")
+class IoBudgetTests {
+
+	@Test
+	void should_fail_tests_exceeding_the_budget() {
+		var results = executeTestsForClass(TestCase.class);
+
+		results.testEvents()
+			.assertStatistics(stats -> stats.started(4).succeeded(1).failed(3).reportingEntryPublished(0));
+		results.testEvents()
+			.assertThatEvents()
+			.haveExactly(1,
+					finishedWithFailure(instanceOf(AssertionFailedError.class),
+							message(message -> message.startsWith("I/O budget exceeded in exceeding:")
+									&& message.contains("opens: 2 (limit 2)")
+									&& message.contains("writes: 2 (limit 1) EXCEEDED") && message.contains("forces: 0")
+									&& message.contains("bytes written: 14 (limit 7) EXCEEDED"))))
+			.haveExactly(1, finishedWithFailure(message(message -> message.contains("forces: 2 (limit 1) EXCEEDED"))))
+			.haveExactly(1, finishedWithFailure(message(message -> message.contains("opens: 1 (limit 0) EXCEEDED"))));
+	}
+
+	@IoBudget(opens = 2)
+	static class TestCase {
+
+		@JimfsTempDir
+		Path tempDir1;
+
+		@JimfsTempDir
+		Path tempDir2;
+
+		@Test
+		void within() throws IOException {
+			Files.writeString(tempDir1.resolve("file"), "content");
+			Files.writeString(tempDir2.resolve("file"), "content");
+		}
+
+		@Test
+		@IoBudget(opens = 2, writes = 1, bytesWritten = 7)
+		void exceeding() throws IOException {
+			Files.writeString(tempDir1.resolve("file"), "content");
+			Files.writeString(tempDir2.resolve("file"), "content");
+		}
+
+		@Test
+		@IoBudget(forces = 1)
+		void forcing() throws IOException {
+			try (FileChannel channel = FileChannel.open(tempDir1.resolve("file"), CREATE_NEW, WRITE, DSYNC)) {
+				channel.write(ByteBuffer.wrap(new byte[] { 1 }));
+				channel.force(true);
+			}
+		}
+
+		@Test
+		@IoBudget(opens = 0)
+		void temp_dir_factory(@TempDir(factory = JimfsTempDirFactory.class) Path tempDir) throws IOException {
+			Files.writeString(tempDir.resolve("file"), "content");
+		}
+
+	}
+
+	@Test
+	void should_check_class_budget_after_all_tests() {
+		executeTestsForClass(StaticTestCase.class).containerEvents()
+			.assertThatEvents()
+			.haveExactly(1, finishedWithFailure(instanceOf(AssertionFailedError.class),
+					message(message -> message.contains("bytes written: 8 (limit 4) EXCEEDED"))));
+	}
+
+	@Test
+	void should_check_class_temp_directories_per_test() {
+		var results = executeTestsForClass(SharedTestCase.class);
+
+		results.testEvents()
+			.assertStatistics(stats -> stats.started(3).succeeded(2).failed(1))
+			.assertThatEvents()
+			.haveExactly(1,
+					finishedWithFailure(instanceOf(AssertionFailedError.class),
+							message(message -> message.startsWith("I/O budget exceeded in exceeding:")
+									&& message.contains("bytes written: 8 (limit 4) EXCEEDED"))));
+		results.containerEvents().assertStatistics(stats -> stats.failed(0));
+	}
+
+	@IoBudget(bytesWritten = 4)
+	static class SharedTestCase {
+
+		@JimfsTempDir
+		static Path tempDir;
+
+		@Test
+		void first() throws IOException {
+			Files.write(tempDir.resolve("first"), new byte[3]);
+		}
+
+		@Test
+		void second() throws IOException {
+			Files.write(tempDir.resolve("second"), new byte[3]);
+		}
+
+		@Test
+		void exceeding() throws IOException {
+			Files.write(tempDir.resolve("exceeding"), new byte[8]);
+		}
+
+	}
+
+	@IoBudget(bytesWritten = 4)
+	static class StaticTestCase {
+
+		@JimfsTempDir
+		static Path tempDir;
+
+		@AfterAll
+		static void write() throws IOException {
+			Files.write(tempDir.resolve("file"), new byte[8]);
+		}
+
+		@Test
+		void test() {
+		}
+
+	}
+
+}
@@ -16,19 +16,61 @@
 package io.github.scordio.tests.jimfs.junit.jupiter;
 
 import io.github.scordio.jimfs.junit.jupiter.JimfsTempDir;
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDirExtension;
 import io.github.scordio.jimfs.junit.jupiter.JimfsTempDirFactory;
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDirFactoryMXBean;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.extension.AnnotatedElementContext;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.io.CleanupMode;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.io.TempDirFactory;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.platform.engine.reporting.ReportEntry;
 import org.junit.platform.testkit.engine.EngineExecutionResults;
+import org.opentest4j.AssertionFailedError;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+import javax.management.JMException;
+import javax.management.JMX;
+import javax.management.ObjectName;
 
 import static io.github.scordio.tests.jimfs.junit.jupiter.JupiterEngineTestKit.executeTests;
 import static io.github.scordio.tests.jimfs.junit.jupiter.JupiterEngineTestKit.executeTestsForClass;
@@ -39,6 +81,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.condition.OS.MAC;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
 import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+import static org.junit.platform.testkit.engine.EventConditions.finishedWithFailure;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.instanceOf;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.message;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.suppressed;
 
 @DisplayName("JimfsTempDirFactory")
 class JimfsTempDirFactoryTests {
@@ -268,4 +314,812 @@ class JimfsTempDirFactoryTests {
 
 	}
 
+	@Nested
+	@DisplayName("with default scope (configuration parameter)")
+	class with_default_scope_config_parameter {
+
+		@Test
+		void should_apply_INVOCATION_scope() {
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.DEFAULT_SCOPE_PARAMETER_NAME, "invocation")
+				.build()).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class TestCase {
+
+			@Test
+			void test(@TempDir Path tempDir1, @TempDir Path tempDir2) {
+				assertThat(tempDir1.getFileSystem()).isSameAs(tempDir2.getFileSystem());
+				assertThat(tempDir1).isNotEqualTo(tempDir2);
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with pooling enabled (configuration parameter)")
+	class with_pooling_enabled_config_parameter {
+
+		private static EngineExecutionResults executeTestsForClass(Class<?> testClass, String maxSize) {
+			return executeTests(request().selectors(selectClass(testClass))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.POOLING_ENABLED_PARAMETER_NAME, "true")
+				.configurationParameter(JimfsTempDir.POOLING_MAX_SIZE_PARAMETER_NAME, maxSize)
+				.build());
+		}
+
+		@Test
+		void should_reuse_wiped_file_system() {
+			executeTestsForClass(ReusingTestCase.class, "1").testEvents()
+				.assertStatistics(stats -> stats.started(2).succeeded(2));
+
+			assertThat(ReusingTestCase.fileSystem.isOpen()).isFalse();
+		}
+
+		@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+		static class ReusingTestCase {
+
+			static FileSystem fileSystem;
+
+			@Test
+			@Order(1)
+			void first(@TempDir Path tempDir) throws IOException {
+				fileSystem = tempDir.getFileSystem();
+				Files.writeString(tempDir.resolve("file"), "content");
+				Files.createDirectories(tempDir.getRoot().resolve("leftover").resolve("nested"));
+			}
+
+			@Test
+			@Order(2)
+			void second(@TempDir Path tempDir) {
+				assertThat(tempDir.getFileSystem()).isSameAs(fileSystem);
+				assertThat(tempDir).isEmptyDirectory();
+				assertThat(tempDir.getRoot().resolve("leftover")).doesNotExist();
+			}
+
+		}
+
+		@Test
+		void should_not_reuse_file_system_exceeding_max_size() {
+			executeTestsForClass(ExceedingTestCase.class, "0").testEvents()
+				.assertStatistics(stats -> stats.started(2).succeeded(2));
+		}
+
+		@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+		static class ExceedingTestCase {
+
+			static FileSystem fileSystem;
+
+			@Test
+			@Order(1)
+			void first(@TempDir Path tempDir) {
+				fileSystem = tempDir.getFileSystem();
+			}
+
+			@Test
+			@Order(2)
+			void second(@TempDir Path tempDir) {
+				assertThat(tempDir.getFileSystem()).isNotSameAs(fileSystem);
+				assertThat(fileSystem.isOpen()).isFalse();
+			}
+
+		}
+
+		@ParameterizedTest
+		@ValueSource(classes = { LeakingStreamTestCase.class, LeakingWatchServiceTestCase.class })
+		void should_not_reuse_file_system_with_open_resources(Class<?> testClass) {
+			executeTestsForClass(testClass, "1").testEvents().assertStatistics(stats -> stats.started(2).succeeded(2));
+		}
+
+		@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+		static class LeakingStreamTestCase {
+
+			static FileSystem fileSystem;
+
+			@Test
+			@Order(1)
+			@SuppressWarnings({ "resource", "StreamResourceLeak" })
+			void first(@TempDir Path tempDir) throws IOException {
+				fileSystem = tempDir.getFileSystem();
+				Files.newOutputStream(tempDir.resolve("file"));
+			}
+
+			@Test
+			@Order(2)
+			void second(@TempDir Path tempDir) {
+				assertThat(tempDir.getFileSystem()).isNotSameAs(fileSystem);
+				assertThat(fileSystem.isOpen()).isFalse();
+			}
+
+		}
+
+		@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+		static class LeakingWatchServiceTestCase {
+
+			static FileSystem fileSystem;
+
+			@Test
+			@Order(1)
+			@SuppressWarnings("resource")
+			void first(@TempDir Path tempDir) throws IOException {
+				fileSystem = tempDir.getFileSystem();
+				tempDir.getRoot().register(fileSystem.newWatchService(), StandardWatchEventKinds.ENTRY_CREATE);
+			}
+
+			@Test
+			@Order(2)
+			void second(@TempDir Path tempDir) {
+				assertThat(tempDir.getFileSystem()).isNotSameAs(fileSystem);
+				assertThat(fileSystem.isOpen()).isFalse();
+			}
+
+		}
+
+		@Test
+		void should_restore_baseline_attributes() {
+			executeTestsForClass(AttributesTestCase.class, "1").testEvents()
+				.assertStatistics(stats -> stats.started(2).succeeded(2));
+		}
+
+		@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+		static class AttributesTestCase {
+
+			static FileSystem fileSystem;
+
+			static Map<String, Object> rootAttributes;
+
+			@Test
+			@Order(1)
+			void first(@JimfsTempDir(value = JimfsTempDir.Configuration.UNIX,
+					attributeViews = { "posix", "user" }) Path tempDir) throws IOException {
+				fileSystem = tempDir.getFileSystem();
+				Path root = tempDir.getRoot();
+				rootAttributes = Files.readAttributes(root, "posix:*");
+				Files.setPosixFilePermissions(root, Set.of());
+				Files.setLastModifiedTime(root, FileTime.fromMillis(0));
+				Files.setOwner(root, fileSystem.getUserPrincipalLookupService().lookupPrincipalByName("nobody"));
+				Files.setAttribute(root, "user:leftover", new byte[] { 1 });
+			}
+
+			@Test
+			@Order(2)
+			void second(@JimfsTempDir(value = JimfsTempDir.Configuration.UNIX,
+					attributeViews = { "posix", "user" }) Path tempDir) throws IOException {
+				assertThat(tempDir.getFileSystem()).isSameAs(fileSystem);
+				// the last modified time reflects the creation of the new temporary
+				// directory
+				assertThat(Files.readAttributes(tempDir.getRoot(), "posix:*"))
+					.containsEntry("permissions", rootAttributes.get("permissions"))
+					.containsEntry("owner", rootAttributes.get("owner"))
+					.doesNotContainEntry("lastModifiedTime", FileTime.fromMillis(0));
+				assertThat(Files.readAttributes(tempDir.getRoot(), "user:*")).isEmpty();
+			}
+
+		}
+
+		@Test
+		void should_not_retain_blocks_of_deleted_files() {
+			executeTestsForClass(CacheTestCase.class, "1").testEvents()
+				.assertStatistics(stats -> stats.started(2).succeeded(2));
+		}
+
+		@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+		static class CacheTestCase {
+
+			static final int STORED_BYTES = 1 << 20;
+
+			static FileSystem fileSystem;
+
+			@Test
+			@Order(1)
+			void first(@TempDir Path tempDir) throws IOException {
+				fileSystem = tempDir.getFileSystem();
+				Files.write(tempDir.resolve("file"), new byte[STORED_BYTES]);
+			}
+
+			@Test
+			@Order(2)
+			void second(@TempDir Path tempDir) throws JMException {
+				assertThat(tempDir.getFileSystem()).isSameAs(fileSystem);
+				assertThat(JMX
+					.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+							new ObjectName(JimfsTempDirFactoryMXBean.OBJECT_NAME), JimfsTempDirFactoryMXBean.class)
+					.getStoredBytes()).isLessThan(STORED_BYTES);
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with footprint report enabled (configuration parameter)")
+	class with_footprint_report_enabled_config_parameter {
+
+		@Test
+		void should_publish_footprint_before_deletion() {
+			EngineExecutionResults results = executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.FOOTPRINT_REPORT_ENABLED_PARAMETER_NAME, "true")
+				.build());
+
+			results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1).reportingEntryPublished(1));
+			assertThat(results.testEvents()
+				.reportingEntryPublished()
+				.map(event -> event.getRequiredPayload(ReportEntry.class))).singleElement()
+				.extracting(ReportEntry::getKeyValuePairs, InstanceOfAssertFactories.map(String.class, String.class))
+				.containsEntry("jimfs.tempdir.files", "2")
+				.containsEntry("jimfs.tempdir.bytes", "10001")
+				.containsEntry("jimfs.tempdir.blocks", "3")
+				.containsKey("jimfs.tempdir");
+		}
+
+		@Test
+		void should_not_publish_blocks_of_shared_file_system() {
+			EngineExecutionResults results = executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.DEFAULT_SCOPE_PARAMETER_NAME, "class")
+				.configurationParameter(JimfsTempDir.FOOTPRINT_REPORT_ENABLED_PARAMETER_NAME, "true")
+				.build());
+
+			results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1).reportingEntryPublished(1));
+			assertThat(results.testEvents()
+				.reportingEntryPublished()
+				.map(event -> event.getRequiredPayload(ReportEntry.class))).singleElement()
+				.extracting(ReportEntry::getKeyValuePairs, InstanceOfAssertFactories.map(String.class, String.class))
+				.containsEntry("jimfs.tempdir.files", "2")
+				.containsEntry("jimfs.tempdir.bytes", "10001")
+				.doesNotContainKey("jimfs.tempdir.blocks");
+		}
+
+		@ExtendWith(JimfsTempDirExtension.class)
+		static class TestCase {
+
+			@Test
+			void test(@TempDir Path tempDir) throws IOException {
+				Files.write(tempDir.resolve("large"), new byte[10000]);
+				Files.createDirectory(tempDir.resolve("dir"));
+				Files.write(tempDir.resolve("dir").resolve("small"), new byte[1]);
+			}
+
+		}
+
+		@Test
+		void should_warn_when_extension_is_not_registered() {
+			List<LogRecord> records = new CopyOnWriteArrayList<>();
+			Handler handler = new Handler() {
+
+				@Override
+				public void publish(LogRecord record) {
+					records.add(record);
+				}
+
+				@Override
+				public void flush() {
+				}
+
+				@Override
+				public void close() {
+				}
+
+			};
+			Logger logger = Logger.getLogger("io.github.scordio.jimfs.junit.jupiter.FootprintReporter");
+			logger.addHandler(handler);
+			try {
+				executeTests(request().selectors(selectClass(NoExtensionTestCase.class))
+					.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+					.configurationParameter(JimfsTempDir.FOOTPRINT_REPORT_ENABLED_PARAMETER_NAME, "true")
+					.build()).testEvents()
+					.assertStatistics(stats -> stats.started(1).succeeded(1).reportingEntryPublished(0));
+			}
+			finally {
+				logger.removeHandler(handler);
+			}
+
+			assertThat(records).extracting(LogRecord::getMessage)
+				.filteredOn(message -> message.contains("JimfsTempDirExtension is not registered"))
+				.singleElement()
+				.asString()
+				.contains("footprint without extension");
+		}
+
+		static class NoExtensionTestCase {
+
+			@Test
+			void footprint_without_extension(@TempDir Path tempDir) throws IOException {
+				Files.write(tempDir.resolve("file"), new byte[1]);
+			}
+
+		}
+
+		@Test
+		void should_fail_test_exceeding_threshold() {
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.FOOTPRINT_THRESHOLD_PARAMETER_NAME, "10000")
+				.configurationParameter(JimfsTempDir.FOOTPRINT_THRESHOLD_MODE_PARAMETER_NAME, "fail")
+				.build()).testEvents()
+				.assertStatistics(stats -> stats.started(1).failed(1).reportingEntryPublished(0))
+				.assertThatEvents()
+				.haveExactly(1, finishedWithFailure(instanceOf(AssertionFailedError.class), message(
+						message -> message.endsWith("exceeds the footprint threshold: 10001 bytes > 10000 bytes"))));
+		}
+
+		@Test
+		void should_only_warn_by_default_for_test_exceeding_threshold() {
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.FOOTPRINT_THRESHOLD_PARAMETER_NAME, "10000")
+				.build()).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with small I/O detection enabled (configuration parameter)")
+	class with_small_io_detection_enabled_config_parameter {
+
+		@Test
+		void should_fail_test_with_small_io_operations() {
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.SMALL_IO_DETECTION_ENABLED_PARAMETER_NAME, "true")
+				.configurationParameter(JimfsTempDir.SMALL_IO_THRESHOLD_PARAMETER_NAME, "64")
+				.configurationParameter(JimfsTempDir.SMALL_IO_THRESHOLD_MODE_PARAMETER_NAME, "fail")
+				.build()).testEvents()
+				.assertStatistics(stats -> stats.started(1).failed(1).reportingEntryPublished(0))
+				.assertThatEvents()
+				.haveExactly(1,
+						finishedWithFailure(instanceOf(AssertionFailedError.class),
+								message(message -> message.contains("with median size below 64 bytes:")
+										&& message.contains("unbuffered: 0 reads, 100 writes, median size 1 byte")
+										&& message.contains("unbuffered: 100 reads, 0 writes, median size 1 byte")
+										&& message.contains("chunked: 0 reads, 3 writes, median size 32-63 bytes")
+										&& !message.contains("/buffered:") && !message.contains("/single:"))));
+		}
+
+		@Test
+		void should_only_warn_by_default_for_test_with_small_io_operations() {
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.SMALL_IO_DETECTION_ENABLED_PARAMETER_NAME, "true")
+				.build()).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		@ExtendWith(JimfsTempDirExtension.class)
+		static class TestCase {
+
+			@Test
+			void test(@TempDir Path tempDir) throws IOException {
+				try (OutputStream out = Files.newOutputStream(tempDir.resolve("unbuffered"))) {
+					for (int i = 0; i < 100; i++) {
+						out.write(i);
+					}
+				}
+				try (InputStream in = Files.newInputStream(tempDir.resolve("unbuffered"))) {
+					while (in.read() != -1) {
+						// read byte by byte
+					}
+				}
+				try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempDir.resolve("buffered")))) {
+					for (int i = 0; i < 100; i++) {
+						out.write(i);
+					}
+				}
+				try (OutputStream out = Files.newOutputStream(tempDir.resolve("chunked"))) {
+					out.write(new byte[32]);
+					out.write(new byte[32]);
+					out.write(new byte[128]);
+				}
+				Files.write(tempDir.resolve("single"), new byte[1]);
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with leak detection enabled (configuration parameter)")
+	class with_leak_detection_enabled_config_parameter {
+
+		@Test
+		void should_fail_test_leaking_channels_and_streams() {
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.LEAK_DETECTION_ENABLED_PARAMETER_NAME, "true")
+				.configurationParameter(JimfsTempDir.LEAK_DETECTION_MODE_PARAMETER_NAME, "fail")
+				.build()).testEvents()
+				.assertStatistics(stats -> stats.started(1).failed(1).reportingEntryPublished(0))
+				.assertThatEvents()
+				.haveExactly(1,
+						finishedWithFailure(instanceOf(AssertionFailedError.class),
+								message(message -> message.contains("Unclosed channels and streams in")
+										&& message.contains("output stream of ") && message.contains("/leaked")
+										&& message.contains("directory stream of ") && !message.contains("/closed")),
+								suppressed(0, message(message -> message.startsWith("Opened "))),
+								suppressed(1, message(message -> message.startsWith("Opened ")))));
+		}
+
+		@Test
+		void should_only_warn_by_default_for_test_leaking_channels_and_streams() {
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.LEAK_DETECTION_ENABLED_PARAMETER_NAME, "true")
+				.build()).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		@ExtendWith(JimfsTempDirExtension.class)
+		static class TestCase {
+
+			@Test
+			@SuppressWarnings({ "resource", "StreamResourceLeak" })
+			void test(@TempDir Path tempDir) throws IOException {
+				try (OutputStream out = Files.newOutputStream(tempDir.resolve("closed"))) {
+					out.write(1);
+				}
+				Files.newOutputStream(tempDir.resolve("leaked")).write(1);
+				Files.newDirectoryStream(tempDir).iterator().next();
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with file events enabled (configuration parameter)")
+	class with_file_events_enabled_config_parameter {
+
+		private static final String PREFIX = "io.github.scordio.jimfs.junit.jupiter.";
+
+		@Test
+		void should_record_flight_recorder_events(@TempDir Path recordingDir) throws IOException {
+			Path dump = recordingDir.resolve("recording.jfr");
+			try (Recording recording = new Recording()) {
+				recording.enable(PREFIX + "FileSystemCreation");
+				recording.enable(PREFIX + "TempDirectoryCreation");
+				recording.enable(PREFIX + "FileSystemClose");
+				recording.enable(PREFIX + "FileRead");
+				recording.enable(PREFIX + "FileWrite");
+				recording.start();
+
+				executeTests(request().selectors(selectClass(TestCase.class))
+					.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+					.configurationParameter(JimfsTempDir.FILE_EVENTS_ENABLED_PARAMETER_NAME, "true")
+					.build()).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+
+				recording.stop();
+				recording.dump(dump);
+			}
+
+			List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+
+			RecordedEvent creation = assertThat(events)
+				.filteredOn(event -> event.getEventType().getName().equals(PREFIX + "FileSystemCreation"))
+				.singleElement()
+				.satisfies(event -> assertThat(event.getString("configuration")).isEqualTo("UNIX"))
+				.satisfies(event -> assertThat(event.getString("test")).contains("test(java.nio.file.Path)"))
+				.satisfies(event -> assertThat(event.getString("fileSystem")).startsWith("jimfs://"))
+				.actual();
+			assertThat(events)
+				.filteredOn(event -> event.getEventType().getName().equals(PREFIX + "TempDirectoryCreation"))
+				.singleElement()
+				.satisfies(event -> assertThat(event.getString("test")).isEqualTo(creation.getString("test")))
+				.satisfies(event -> assertThat(event.getString("path")).startsWith("/"))
+				.satisfies(
+						event -> assertThat(event.getString("fileSystem")).isEqualTo(creation.getString("fileSystem")))
+				.satisfies(event -> assertThat(event.getStackTrace()).isNull());
+			assertThat(events).filteredOn(event -> event.getEventType().getName().equals(PREFIX + "FileSystemClose"))
+				.singleElement()
+				.satisfies(event -> assertThat(event.getString("test")).isEqualTo(creation.getString("test")))
+				.satisfies(
+						event -> assertThat(event.getString("fileSystem")).isEqualTo(creation.getString("fileSystem")))
+				.satisfies(event -> assertThat(event.getBoolean("pooled")).isFalse());
+			assertThat(events).filteredOn(event -> event.getEventType().getName().equals(PREFIX + "FileWrite"))
+				.singleElement()
+				.satisfies(event -> assertThat(event.getString("path")).endsWith("/file"))
+				.satisfies(event -> assertThat(event.getLong("bytes")).isEqualTo(7));
+			assertThat(events).filteredOn(event -> event.getEventType().getName().equals(PREFIX + "FileRead"))
+				.extracting(event -> event.getLong("bytes"))
+				.contains(7L);
+		}
+
+		static class TestCase {
+
+			@Test
+			void test(@JimfsTempDir(JimfsTempDir.Configuration.UNIX) Path tempDir) throws IOException {
+				try (OutputStream out = Files.newOutputStream(tempDir.resolve("file"))) {
+					out.write("content".getBytes(StandardCharsets.UTF_8));
+				}
+				try (InputStream in = Files.newInputStream(tempDir.resolve("file"))) {
+					assertThat(in.readAllBytes()).hasSize(7);
+				}
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with MBean")
+	class with_mbean {
+
+		@Test
+		void should_expose_file_system_statistics() throws JMException {
+			executeTestsForClass(TestCase.class);
+			JimfsTempDirFactoryMXBean mbean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+					new ObjectName(JimfsTempDirFactoryMXBean.OBJECT_NAME), JimfsTempDirFactoryMXBean.class);
+			long created = mbean.getCreatedFileSystems();
+			long closed = mbean.getClosedFileSystems();
+
+			executeTestsForClass(TestCase.class).testEvents().assertStatistics(stats -> stats.succeeded(1));
+
+			assertThat(mbean.getCreatedFileSystems()).isEqualTo(created + 1);
+			assertThat(mbean.getClosedFileSystems()).isEqualTo(closed + 1);
+			assertThat(mbean.getPeakStoredBytes()).isGreaterThanOrEqualTo(TestCase.STORED_BYTES);
+			assertThat(mbean.getCreationRate()).isPositive();
+			assertThat(mbean.getAverageLifetime()).isPositive();
+		}
+
+		static class TestCase {
+
+			static final int STORED_BYTES = 1 << 20;
+
+			@Test
+			void test(@JimfsTempDir Path tempDir) throws IOException, JMException {
+				JimfsTempDirFactoryMXBean mbean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+						new ObjectName(JimfsTempDirFactoryMXBean.OBJECT_NAME), JimfsTempDirFactoryMXBean.class);
+				Files.write(tempDir.resolve("file"), new byte[STORED_BYTES]);
+				assertThat(mbean.getStoredBytes()).isGreaterThanOrEqualTo(STORED_BYTES);
+				Files.delete(tempDir.resolve("file"));
+				// the blocks of the deleted file are kept in the cache of free blocks
+				assertThat(mbean.getStoredBytes()).isGreaterThanOrEqualTo(STORED_BYTES);
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with factory never closed")
+	class with_factory_never_closed {
+
+		@Test
+		void should_close_file_systems_by_engine_end() {
+			TestCase.fileSystems.clear();
+
+			executeTestsForClass(TestCase.class).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+
+			assertThat(TestCase.fileSystems).singleElement()
+				.satisfies(fileSystem -> assertThat(fileSystem.isOpen()).isFalse());
+		}
+
+		static class TestCase {
+
+			static final Set<FileSystem> fileSystems = ConcurrentHashMap.newKeySet();
+
+			@Test
+			void test(@TempDir(factory = NeverClosedFactory.class) Path tempDir) {
+				fileSystems.add(tempDir.getFileSystem());
+			}
+
+		}
+
+		static class NeverClosedFactory implements TempDirFactory {
+
+			private final JimfsTempDirFactory delegate = new JimfsTempDirFactory();
+
+			@Override
+			public Path createTempDirectory(AnnotatedElementContext elementContext, ExtensionContext extensionContext)
+					throws Exception {
+				return delegate.createTempDirectory(elementContext, extensionContext);
+			}
+
+			@Override
+			public void close() {
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with retention")
+	class with_retention {
+
+		@Test
+		void should_keep_file_systems_of_retained_temp_dirs_open_until_engine_end() {
+			TestCase.fileSystems.clear();
+
+			executeTestsForClass(TestCase.class).testEvents().assertStatistics(stats -> stats.started(2).succeeded(2));
+
+			assertThat(TestCase.fileSystems).hasSize(2).noneMatch(FileSystem::isOpen);
+		}
+
+		@Test
+		void should_discard_file_systems_exceeding_max_size() {
+			TestCase.fileSystems.clear();
+
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(JimfsTempDir.RETENTION_MAX_SIZE_PARAMETER_NAME, "0")
+				.build()).testEvents().assertStatistics(stats -> stats.started(2).succeeded(1).failed(1));
+		}
+
+		@Test
+		void should_archive_file_systems_exceeding_max_size(@TempDir Path archiveDirectory) throws IOException {
+			TestCase.fileSystems.clear();
+
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(JimfsTempDir.RETENTION_MAX_SIZE_PARAMETER_NAME, "0")
+				.configurationParameter(JimfsTempDir.RETENTION_OVERFLOW_MODE_PARAMETER_NAME, "archive")
+				.configurationParameter(JimfsTempDir.RETENTION_ARCHIVE_DIRECTORY_PARAMETER_NAME,
+						archiveDirectory.toString())
+				.build()).testEvents().assertStatistics(stats -> stats.started(2).succeeded(1).failed(1));
+
+			try (Stream<Path> archives = Files.list(archiveDirectory)) {
+				assertThat(archives).hasSize(2)
+					.satisfiesExactlyInAnyOrder(
+							archive -> assertThat(archive.getFileName().toString()).contains("method_first_"),
+							archive -> assertThat(archive.getFileName().toString()).contains("method_second_"));
+			}
+			try (Stream<Path> archives = Files.list(archiveDirectory)) {
+				assertThat(archives).allSatisfy(archive -> {
+					try (ZipFile zip = new ZipFile(archive.toFile())) {
+						assertThat(zip.getEntry("file")).isNotNull();
+					}
+				});
+			}
+		}
+
+		@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+		static class TestCase {
+
+			static final List<FileSystem> fileSystems = new CopyOnWriteArrayList<>();
+
+			@Test
+			@Order(1)
+			void first(@TempDir(factory = JimfsTempDirFactory.class, cleanup = CleanupMode.NEVER) Path tempDir)
+					throws IOException {
+				Files.writeString(tempDir.resolve("file"), "content");
+				fileSystems.add(tempDir.getFileSystem());
+			}
+
+			@Test
+			@Order(2)
+			void second(@TempDir(factory = JimfsTempDirFactory.class, cleanup = CleanupMode.NEVER) Path tempDir)
+					throws IOException {
+				Files.writeString(tempDir.resolve("file"), "content");
+				fileSystems.add(tempDir.getFileSystem());
+				assertThat(fileSystems.get(0).isOpen()).isTrue();
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with async close enabled (configuration parameter)")
+	class with_async_close_enabled_config_parameter {
+
+		@Test
+		void should_close_every_file_system_by_engine_end() {
+			TestCase.fileSystems.clear();
+
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(TempDir.DEFAULT_FACTORY_PROPERTY_NAME, JimfsTempDirFactory.class.getName())
+				.configurationParameter(JimfsTempDir.ASYNC_CLOSE_ENABLED_PARAMETER_NAME, "true")
+				.configurationParameter(JimfsTempDir.ASYNC_CLOSE_QUEUE_SIZE_PARAMETER_NAME, "1")
+				.configurationParameter(JimfsTempDir.ASYNC_CLOSE_BATCH_SIZE_PARAMETER_NAME, "4")
+				.build()).testEvents().assertStatistics(stats -> stats.started(50).succeeded(50));
+
+			assertThat(TestCase.fileSystems).hasSize(51).noneMatch(FileSystem::isOpen);
+		}
+
+		static class TestCase {
+
+			static final Set<FileSystem> fileSystems = ConcurrentHashMap.newKeySet();
+
+			@RepeatedTest(50)
+			void test(@TempDir Path tempDir, @JimfsTempDir(scope = JimfsTempDir.Scope.CLASS) Path sharedTempDir)
+					throws IOException {
+				Files.writeString(tempDir.resolve("file"), "content");
+				Files.writeString(sharedTempDir.resolve("file"), "content");
+				fileSystems.add(tempDir.getFileSystem());
+				fileSystems.add(sharedTempDir.getFileSystem());
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with parallel execution")
+	class with_parallel_execution {
+
+		private static final int REPETITIONS = 2000;
+
+		private static EngineExecutionResults executeTestsForClass(Class<?> testClass) {
+			return executeTests(request().selectors(selectClass(testClass))
+				.configurationParameter("junit.jupiter.execution.parallel.enabled", "true")
+				.configurationParameter("junit.jupiter.execution.parallel.mode.default", "concurrent")
+				.configurationParameter("junit.jupiter.execution.parallel.config.strategy", "dynamic")
+				.build());
+		}
+
+		@Test
+		void should_close_every_file_system() {
+			ConcurrentTestCase.fileSystems.clear();
+
+			executeTestsForClass(ConcurrentTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(REPETITIONS).succeeded(REPETITIONS));
+
+			assertThat(ConcurrentTestCase.fileSystems).hasSize(2 * REPETITIONS).noneMatch(FileSystem::isOpen);
+		}
+
+		static class ConcurrentTestCase {
+
+			static final Set<FileSystem> fileSystems = ConcurrentHashMap.newKeySet();
+
+			@RepeatedTest(REPETITIONS)
+			void test(@TempDir(factory = JimfsTempDirFactory.class) Path tempDir1, @JimfsTempDir Path tempDir2)
+					throws IOException {
+				Files.writeString(tempDir1.resolve("file"), "content");
+				Files.writeString(tempDir2.resolve("file"), "content");
+				fileSystems.add(tempDir1.getFileSystem());
+				fileSystems.add(tempDir2.getFileSystem());
+			}
+
+		}
+
+		@Test
+		void should_close_every_file_system_created_by_shared_factory() {
+			SharedFactoryTestCase.fileSystems.clear();
+
+			executeTestsForClass(SharedFactoryTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(REPETITIONS).succeeded(REPETITIONS));
+
+			assertThat(SharedFactoryTestCase.fileSystems).hasSize(REPETITIONS);
+			assertThat(SharedFactoryTestCase.openBeforeClose).isEqualTo(REPETITIONS);
+			assertThat(SharedFactoryTestCase.openAfterClose).isZero();
+		}
+
+		static class SharedFactoryTestCase {
+
+			static final Set<FileSystem> fileSystems = ConcurrentHashMap.newKeySet();
+
+			static volatile long openBeforeClose;
+
+			static volatile long openAfterClose;
+
+			// closed before the engine execution completes, as file systems still open by
+			// then are closed anyway
+			@AfterAll
+			static void closeFactory() throws IOException {
+				openBeforeClose = fileSystems.stream().filter(FileSystem::isOpen).count();
+				SharedFactory.INSTANCE.close();
+				openAfterClose = fileSystems.stream().filter(FileSystem::isOpen).count();
+			}
+
+			@RepeatedTest(REPETITIONS)
+			void test(@TempDir(factory = SharedFactory.class) Path tempDir) throws IOException {
+				Files.writeString(tempDir.resolve("file"), "content");
+				fileSystems.add(tempDir.getFileSystem());
+			}
+
+		}
+
+		static class SharedFactory implements TempDirFactory {
+
+			static final JimfsTempDirFactory INSTANCE = new JimfsTempDirFactory();
+
+			@Override
+			public Path createTempDirectory(AnnotatedElementContext elementContext, ExtensionContext extensionContext)
+					throws Exception {
+				return INSTANCE.createTempDirectory(elementContext, extensionContext);
+			}
+
+		}
+
+	}
+
 }
@@ -16,33 +16,76 @@
 package io.github.scordio.tests.jimfs.junit.jupiter;
 
 import io.github.scordio.jimfs.junit.jupiter.JimfsTempDir;
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Latency;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.platform.engine.reporting.ReportEntry;
 import org.junit.platform.testkit.engine.EngineExecutionResults;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Configuration.DEFAULT;
 import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Configuration.FOR_CURRENT_PLATFORM;
 import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Configuration.OS_X;
 import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Configuration.UNIX;
 import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Configuration.WINDOWS;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.DEFAULT_ATTRIBUTE_VIEWS_PARAMETER_NAME;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.DEFAULT_BLOCK_SIZE_PARAMETER_NAME;
 import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.DEFAULT_CONFIGURATION_PARAMETER_NAME;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.DEFAULT_MAX_CACHE_SIZE_PARAMETER_NAME;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.DEFAULT_MAX_SIZE_PARAMETER_NAME;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.DEFAULT_WATCH_SERVICE_POLLING_INTERVAL_PARAMETER_NAME;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.FOOTPRINT_REPORT_ENABLED_PARAMETER_NAME;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.FOOTPRINT_THRESHOLD_MODE_PARAMETER_NAME;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.FOOTPRINT_THRESHOLD_PARAMETER_NAME;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.INSTRUMENTATION_ENABLED_PARAMETER_NAME;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.PathEquality.CANONICAL;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.PathEquality.DISPLAY;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.PathNormalization.CASE_FOLD_ASCII;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.PathNormalization.NFC;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.PathNormalization.NONE;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Scope.CLASS;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Scope.ENGINE;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Scope.INVOCATION;
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Scope.TEMP_DIRECTORY;
 import static io.github.scordio.tests.jimfs.junit.jupiter.JupiterEngineTestKit.executeTests;
 import static io.github.scordio.tests.jimfs.junit.jupiter.JupiterEngineTestKit.executeTestsForClass;
 import static io.github.scordio.tests.jimfs.junit.jupiter.Requirements.osXFileSystem;
 import static io.github.scordio.tests.jimfs.junit.jupiter.Requirements.unixFileSystem;
 import static io.github.scordio.tests.jimfs.junit.jupiter.Requirements.windowsFileSystem;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
 import static org.junit.jupiter.api.condition.OS.MAC;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
 import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+import static org.junit.platform.testkit.engine.EventConditions.finishedWithFailure;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.cause;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.instanceOf;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.message;
 
 @DisplayName("JimfsTempDir")
 class JimfsTempDirTests {
@@ -335,4 +378,706 @@ class JimfsTempDirTests {
 
 	}
 
+	@Nested
+	@DisplayName("with storage settings")
+	class with_storage_settings {
+
+		@Test
+		void should_apply_block_size_and_max_size() {
+			executeTestsForClass(TestCase.class).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class TestCase {
+
+			@Test
+			void test(@JimfsTempDir(blockSize = 1024, maxSize = 4096, maxCacheSize = 0) Path tempDir)
+					throws IOException {
+				FileStore fileStore = Files.getFileStore(tempDir);
+				assertThat(fileStore.getTotalSpace()).isEqualTo(4096);
+
+				Files.write(tempDir.resolve("small"), new byte[1]);
+				assertThat(fileStore.getUnallocatedSpace()).isEqualTo(3072);
+
+				assertThatIOException().isThrownBy(() -> Files.write(tempDir.resolve("large"), new byte[4096]));
+			}
+
+		}
+
+		@Test
+		void should_report_test_and_largest_files_when_exceeding_max_size() {
+			String prefix = "Test 'test (Path)' of " + QuotaTestCase.class.getName() + " exceeded the maximum size";
+			String largestFiles = "(?s).*Largest files:\\R {2}/junit-\\d+/medium: 3000 bytes\\R {2}/junit-\\d+/small: 10 bytes.*";
+
+			executeTestsForClass(QuotaTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(1).failed(1))
+				.assertThatEvents()
+				.haveExactly(1,
+						finishedWithFailure(instanceOf(IOException.class), message(message -> message.startsWith(prefix)
+								&& message.contains(": 8192 bytes max size") && message.matches(largestFiles))));
+		}
+
+		static class QuotaTestCase {
+
+			@Test
+			void test(@JimfsTempDir(blockSize = 1024, maxSize = 8192) Path tempDir) throws IOException {
+				Files.write(tempDir.resolve("small"), new byte[10]);
+				Files.write(tempDir.resolve("medium"), new byte[3000]);
+				Files.write(tempDir.resolve("large"), new byte[8192]);
+			}
+
+		}
+
+		@Test
+		void should_report_exceeding_max_size_from_the_failing_write() {
+			executeTestsForClass(CaughtQuotaTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class CaughtQuotaTestCase {
+
+			@Test
+			void test(@JimfsTempDir(blockSize = 1024, maxSize = 8192) Path tempDir) throws IOException {
+				Files.write(tempDir.resolve("small"), new byte[10]);
+
+				assertThatIOException().isThrownBy(() -> Files.write(tempDir.resolve("large"), new byte[8192]))
+					.withMessageStartingWith("Test 'test (Path)' of " + CaughtQuotaTestCase.class.getName()
+							+ " exceeded the maximum size")
+					.withMessageContaining(": 8192 bytes max size")
+					.withMessageContaining("small: 10 bytes");
+			}
+
+		}
+
+		@Test
+		void should_apply_configuration_parameters() {
+			executeTests(request().selectors(selectClass(ConfigurationParametersTestCase.class))
+				.configurationParameter(DEFAULT_BLOCK_SIZE_PARAMETER_NAME, "512")
+				.configurationParameter(DEFAULT_MAX_SIZE_PARAMETER_NAME, "2048")
+				.configurationParameter(DEFAULT_MAX_CACHE_SIZE_PARAMETER_NAME, "0")
+				.build()).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class ConfigurationParametersTestCase {
+
+			@Test
+			void test(@JimfsTempDir Path tempDir1, @JimfsTempDir(blockSize = 1024) Path tempDir2) throws IOException {
+				FileStore fileStore1 = Files.getFileStore(tempDir1);
+				Files.write(tempDir1.resolve("small"), new byte[1]);
+				assertThat(fileStore1.getTotalSpace()).isEqualTo(2048);
+				assertThat(fileStore1.getUnallocatedSpace()).isEqualTo(1536);
+
+				FileStore fileStore2 = Files.getFileStore(tempDir2);
+				Files.write(tempDir2.resolve("small"), new byte[1]);
+				assertThat(fileStore2.getTotalSpace()).isEqualTo(2048);
+				assertThat(fileStore2.getUnallocatedSpace()).isEqualTo(1024);
+			}
+
+		}
+
+		@Test
+		void should_ignore_zero_block_size() {
+			executeTests(request().selectors(selectClass(ZeroBlockSizeTestCase.class))
+				.configurationParameter(DEFAULT_BLOCK_SIZE_PARAMETER_NAME, "0")
+				.build()).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class ZeroBlockSizeTestCase {
+
+			@Test
+			void test(@JimfsTempDir(value = UNIX, blockSize = 0) Path tempDir) throws IOException {
+				FileStore fileStore = Files.getFileStore(tempDir);
+				long unallocatedSpace = fileStore.getUnallocatedSpace();
+				Files.write(tempDir.resolve("small"), new byte[1]);
+				// the default block size of the preset
+				assertThat(unallocatedSpace - fileStore.getUnallocatedSpace()).isEqualTo(8192);
+			}
+
+		}
+
+		@Test
+		void should_ignore_zero_max_size() {
+			executeTestsForClass(ZeroMaxSizeTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class ZeroMaxSizeTestCase {
+
+			@Test
+			void test(@JimfsTempDir(value = UNIX, maxSize = 0) Path tempDir) throws IOException {
+				// the default max size of the preset
+				assertThat(Files.getFileStore(tempDir).getTotalSpace()).isEqualTo(4L * 1024 * 1024 * 1024);
+			}
+
+		}
+
+		@Test
+		void should_ignore_negative_configuration_parameters() {
+			executeTests(request().selectors(selectClass(NegativeParametersTestCase.class))
+				.configurationParameter(DEFAULT_MAX_SIZE_PARAMETER_NAME, "-5")
+				.configurationParameter(DEFAULT_MAX_CACHE_SIZE_PARAMETER_NAME, "-5")
+				.build()).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class NegativeParametersTestCase {
+
+			@Test
+			void test(@JimfsTempDir(UNIX) Path tempDir) throws IOException {
+				Files.write(tempDir.resolve("file"), new byte[1]);
+				// the default max size of the preset
+				assertThat(Files.getFileStore(tempDir).getTotalSpace()).isEqualTo(4L * 1024 * 1024 * 1024);
+			}
+
+		}
+
+		@Test
+		void should_apply_attribute_views() {
+			executeTestsForClass(AttributeViewsTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class AttributeViewsTestCase {
+
+			@Test
+			void test(@JimfsTempDir(value = UNIX, attributeViews = "basic") Path tempDir1,
+					@JimfsTempDir(value = UNIX, attributeViews = { "basic", "owner" }) Path tempDir2) {
+				assertThat(tempDir1.getFileSystem().supportedFileAttributeViews()).containsExactly("basic");
+				assertThat(tempDir2.getFileSystem().supportedFileAttributeViews()).containsExactlyInAnyOrder("basic",
+						"owner");
+			}
+
+		}
+
+		@Test
+		void should_apply_attribute_views_configuration_parameter() {
+			executeTests(request().selectors(selectClass(AttributeViewsConfigurationParameterTestCase.class))
+				.configurationParameter(DEFAULT_ATTRIBUTE_VIEWS_PARAMETER_NAME, "basic, posix")
+				.build()).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class AttributeViewsConfigurationParameterTestCase {
+
+			@Test
+			void test(@JimfsTempDir(UNIX) Path tempDir1,
+					@JimfsTempDir(value = UNIX, attributeViews = "basic") Path tempDir2) throws IOException {
+				assertThat(tempDir1.getFileSystem().supportedFileAttributeViews()).containsExactlyInAnyOrder("basic",
+						"owner", "posix");
+				assertThat(Files.getPosixFilePermissions(Files.createFile(tempDir1.resolve("file")))).isNotEmpty();
+				assertThat(tempDir2.getFileSystem().supportedFileAttributeViews()).containsExactly("basic");
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with scope")
+	class with_scope {
+
+		@Nested
+		class with_TEMP_DIRECTORY_scope {
+
+			@Test
+			void should_create_dedicated_file_systems() {
+				executeTestsForClass(TestCase.class).testEvents()
+					.assertStatistics(stats -> stats.started(1).succeeded(1));
+			}
+
+			static class TestCase {
+
+				@Test
+				void test(@JimfsTempDir Path tempDir1, @JimfsTempDir(scope = TEMP_DIRECTORY) Path tempDir2) {
+					assertThat(tempDir1.getFileSystem()).isNotSameAs(tempDir2.getFileSystem());
+				}
+
+			}
+
+		}
+
+		@Nested
+		class with_INVOCATION_scope {
+
+			@Test
+			void should_share_file_system_within_invocation() {
+				executeTestsForClass(TestCase.class).testEvents()
+					.assertStatistics(stats -> stats.started(2).succeeded(2));
+
+				assertThat(TestCase.fileSystems).hasSize(2).doesNotHaveDuplicates().noneMatch(FileSystem::isOpen);
+			}
+
+			static class TestCase {
+
+				static final List<FileSystem> fileSystems = new CopyOnWriteArrayList<>();
+
+				@RepeatedTest(2)
+				void test(@JimfsTempDir(scope = INVOCATION) Path tempDir1,
+						@JimfsTempDir(scope = INVOCATION) Path tempDir2,
+						@JimfsTempDir(value = WINDOWS, scope = INVOCATION) Path tempDir3) {
+					assertThat(tempDir1.getFileSystem()).isSameAs(tempDir2.getFileSystem());
+					assertThat(tempDir1).isNotEqualTo(tempDir2);
+					assertThat(tempDir1.getParent()).isEqualTo(tempDir2.getParent());
+					assertThat(tempDir3.getFileSystem()).isNotSameAs(tempDir1.getFileSystem());
+					fileSystems.add(tempDir1.getFileSystem());
+				}
+
+			}
+
+		}
+
+		@Nested
+		class with_CLASS_scope {
+
+			@Test
+			void should_share_file_system_within_class() {
+				executeTestsForClass(TestCase.class).testEvents()
+					.assertStatistics(stats -> stats.started(2).succeeded(2));
+
+				assertThat(TestCase.fileSystems).hasSize(2).containsOnly(TestCase.fileSystems.get(0));
+				assertThat(TestCase.fileSystems.get(0).isOpen()).isFalse();
+			}
+
+			static class TestCase {
+
+				static final List<FileSystem> fileSystems = new CopyOnWriteArrayList<>();
+
+				@ParameterizedTest
+				@ValueSource(ints = { 1, 2 })
+				void test(int ignored, @JimfsTempDir(scope = CLASS) Path tempDir) {
+					assertThat(tempDir).isEmptyDirectory();
+					fileSystems.add(tempDir.getFileSystem());
+				}
+
+			}
+
+		}
+
+		@Nested
+		class with_ENGINE_scope {
+
+			@Test
+			void should_share_file_system_within_engine_execution() {
+				executeTests(request().selectors(selectClass(TestCase1.class), selectClass(TestCase2.class)).build())
+					.testEvents()
+					.assertStatistics(stats -> stats.started(2).succeeded(2));
+
+				assertThat(TestCase1.fileSystem).isSameAs(TestCase2.fileSystem);
+				assertThat(TestCase1.fileSystem.isOpen()).isFalse();
+			}
+
+			static class TestCase1 {
+
+				static FileSystem fileSystem;
+
+				@Test
+				void test(@JimfsTempDir(scope = ENGINE) Path tempDir) {
+					fileSystem = tempDir.getFileSystem();
+				}
+
+			}
+
+			static class TestCase2 {
+
+				static FileSystem fileSystem;
+
+				@Test
+				void test(@JimfsTempDir(scope = ENGINE) Path tempDir) {
+					fileSystem = tempDir.getFileSystem();
+				}
+
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with fixture")
+	class with_fixture {
+
+		@Test
+		void should_copy_classpath_fixture() {
+			executeTestsForClass(ClasspathTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(2).succeeded(2));
+		}
+
+		static class ClasspathTestCase {
+
+			@Test
+			void test1(@JimfsTempDir(fixture = "classpath:fixtures/sample") Path tempDir) throws IOException {
+				assertThat(tempDir.resolve("hello.txt")).hasContent("Hello, fixture!");
+				assertThat(tempDir.resolve("nested").resolve("data.txt")).hasContent("nested");
+				Files.delete(tempDir.resolve("hello.txt"));
+			}
+
+			@Test
+			void test2(@JimfsTempDir(value = WINDOWS, fixture = "classpath:/fixtures/sample") Path tempDir) {
+				assertThat(tempDir.resolve("hello.txt")).hasContent("Hello, fixture!");
+				assertThat(tempDir.resolve("nested\\data.txt")).hasContent("nested");
+			}
+
+		}
+
+		@Test
+		void should_copy_directory_fixture() {
+			executeTestsForClass(DirectoryTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class DirectoryTestCase {
+
+			@Test
+			void test(@JimfsTempDir(fixture = "src/test/resources/fixtures/sample") Path tempDir) {
+				assertThat(tempDir.resolve("hello.txt")).hasContent("Hello, fixture!");
+				assertThat(tempDir.resolve("nested").resolve("data.txt")).hasContent("nested");
+			}
+
+		}
+
+		@Test
+		void should_fail_with_missing_fixture() {
+			executeTestsForClass(MissingFixtureTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(1).failed(1))
+				.assertThatEvents()
+				.haveExactly(1,
+						finishedWithFailure(instanceOf(ParameterResolutionException.class),
+								cause(message("Failed to create default temp directory"), cause(
+										instanceOf(ExtensionConfigurationException.class),
+										message("Fixture directory not found on the classpath: fixtures/missing")))));
+		}
+
+		static class MissingFixtureTestCase {
+
+			@Test
+			void test(@JimfsTempDir(fixture = "classpath:fixtures/missing") Path tempDir) {
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with footprint threshold")
+	class with_footprint_threshold {
+
+		@Test
+		void should_check_footprint_of_parameters_and_fields() {
+			executeTests(request().selectors(selectClass(TestCase.class))
+				.configurationParameter(FOOTPRINT_THRESHOLD_PARAMETER_NAME, "1024")
+				.configurationParameter(FOOTPRINT_THRESHOLD_MODE_PARAMETER_NAME, "fail")
+				.build()).allEvents().assertStatistics(stats -> stats.started(3).succeeded(1).failed(2));
+		}
+
+		static class TestCase {
+
+			@JimfsTempDir
+			static Path staticTempDir;
+
+			@AfterAll
+			static void fillStaticTempDir() throws IOException {
+				Files.write(staticTempDir.resolve("file"), new byte[2048]);
+			}
+
+			@Test
+			void test(@JimfsTempDir Path tempDir) throws IOException {
+				Files.write(tempDir.resolve("file"), new byte[2048]);
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with lazy materialization")
+	class with_lazy_materialization {
+
+		private static EngineExecutionResults executeTestsForClass(Class<?> testClass) {
+			return executeTests(request().selectors(selectClass(testClass))
+				.configurationParameter(FOOTPRINT_REPORT_ENABLED_PARAMETER_NAME, "true")
+				.build());
+		}
+
+		@Test
+		void should_not_materialize_unused_temp_directory() {
+			executeTestsForClass(UnusedTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(1).succeeded(1).reportingEntryPublished(0));
+
+			assertThat(UnusedTestCase.fileSystem.isOpen()).isFalse();
+		}
+
+		static class UnusedTestCase {
+
+			static FileSystem fileSystem;
+
+			@Test
+			void test(@JimfsTempDir(lazy = true) Path tempDir) throws IOException {
+				fileSystem = tempDir.getFileSystem();
+				assertThat(tempDir).isEmptyDirectory();
+				assertThat(tempDir.toRealPath()).isEqualTo(tempDir);
+				assertThat(tempDir.resolve("file").getParent()).isEqualTo(tempDir);
+			}
+
+		}
+
+		@Test
+		void should_materialize_temp_directory_on_first_access() {
+			executeTestsForClass(UsedTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(2).succeeded(2).reportingEntryPublished(2));
+
+			assertThat(UsedTestCase.fileSystems).hasSize(2).noneMatch(FileSystem::isOpen);
+		}
+
+		static class UsedTestCase {
+
+			static final List<FileSystem> fileSystems = new CopyOnWriteArrayList<>();
+
+			@Test
+			void test1(@JimfsTempDir(lazy = true) Path tempDir) throws IOException {
+				fileSystems.add(tempDir.getFileSystem());
+				Files.writeString(tempDir.resolve("file"), "content");
+				assertThat(tempDir.resolve("file")).hasContent("content");
+				assertThat(tempDir).isDirectoryContaining(path -> path.getFileName().toString().equals("file"));
+			}
+
+			@Test
+			void test2(@JimfsTempDir(lazy = true, fixture = "classpath:fixtures/sample") Path tempDir) {
+				fileSystems.add(tempDir.getFileSystem());
+				assertThat(tempDir.resolve("hello.txt")).hasContent("Hello, fixture!");
+			}
+
+		}
+
+		@Test
+		void should_watch_lazy_temp_directory() {
+			executeTestsForClass(WatchServiceTestCase.class).testEvents()
+				.assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class WatchServiceTestCase {
+
+			@Test
+			void test(@JimfsTempDir(lazy = true, watchServicePollingInterval = 10) Path tempDir) throws Exception {
+				try (WatchService watchService = tempDir.getFileSystem().newWatchService()) {
+					WatchKey registeredKey = tempDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+					Files.createFile(tempDir.resolve("file"));
+
+					WatchKey key = watchService.poll(1, TimeUnit.SECONDS);
+
+					assertThat(key).isSameAs(registeredKey);
+					assertThat(key.watchable()).isEqualTo(tempDir);
+					assertThat(key.pollEvents()).singleElement()
+						.extracting(event -> tempDir.resolve((Path) event.context()))
+						.isEqualTo(tempDir.resolve("file"))
+						.satisfies(file -> assertThat(file).exists());
+				}
+				assertThat(tempDir.relativize(Path.of(tempDir.resolve("file").toUri()))).hasToString("file");
+				assertThat(
+						tempDir.resolve(Path.of(tempDir.toUri()).relativize(Path.of(tempDir.resolve("file").toUri()))))
+					.isEqualTo(tempDir.resolve("file"));
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with watch service polling interval")
+	class with_watch_service_polling_interval {
+
+		@Test
+		void should_apply_polling_interval() {
+			executeTestsForClass(TestCase.class).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class TestCase {
+
+			@Test
+			void test(@JimfsTempDir(watchServicePollingInterval = 10) Path tempDir) throws Exception {
+				assertCreationIsSignalledWithinOneSecond(tempDir);
+			}
+
+		}
+
+		@Test
+		void should_apply_configuration_parameter() {
+			executeTests(request().selectors(selectClass(ConfigurationParameterTestCase.class))
+				.configurationParameter(DEFAULT_WATCH_SERVICE_POLLING_INTERVAL_PARAMETER_NAME, "10")
+				.build()).testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+		}
+
+		static class ConfigurationParameterTestCase {
+
+			@Test
+			void test(@JimfsTempDir Path tempDir) throws Exception {
+				assertCreationIsSignalledWithinOneSecond(tempDir);
+			}
+
+		}
+
+		private static void assertCreationIsSignalledWithinOneSecond(Path tempDir) throws Exception {
+			try (WatchService watchService = tempDir.getFileSystem().newWatchService()) {
+				tempDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+				Files.createFile(tempDir.resolve("file"));
+
+				WatchKey key = watchService.poll(1, TimeUnit.SECONDS);
+
+				assertThat(key).isNotNull();
+				assertThat(key.pollEvents()).singleElement().extracting(WatchEvent::context).hasToString("file");
+			}
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with path normalization")
+	class with_path_normalization {
+
+		@Test
+		void should_apply_path_normalization() {
+			executeTestsForClass(TestCase.class).testEvents().assertStatistics(stats -> stats.started(3).succeeded(3));
+		}
+
+		static class TestCase {
+
+			@Test
+			void display(@JimfsTempDir(value = UNIX, nameDisplayNormalization = NFC) Path tempDir) {
+				assertThat(tempDir.resolve("e\u0301").getFileName()).hasToString("\u00e9");
+			}
+
+			@Test
+			void canonical(@JimfsTempDir(value = UNIX, nameCanonicalNormalization = CASE_FOLD_ASCII) Path tempDir1,
+					@JimfsTempDir(value = WINDOWS, nameCanonicalNormalization = NONE) Path tempDir2)
+					throws IOException {
+				Files.createFile(tempDir1.resolve("file"));
+				assertThat(tempDir1.resolve("FILE")).exists();
+
+				Files.createFile(tempDir2.resolve("file"));
+				assertThat(tempDir2.resolve("FILE")).doesNotExist();
+			}
+
+			@Test
+			void equality(
+					@JimfsTempDir(value = UNIX, nameCanonicalNormalization = CASE_FOLD_ASCII,
+							pathEquality = CANONICAL) Path tempDir1,
+					@JimfsTempDir(value = WINDOWS, pathEquality = DISPLAY) Path tempDir2) {
+				assertThat(tempDir1.resolve("file")).isEqualTo(tempDir1.resolve("FILE"));
+				assertThat(tempDir2.resolve("file")).isNotEqualTo(tempDir2.resolve("FILE"));
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with instrumentation")
+	class with_instrumentation {
+
+		private static List<Map<String, String>> getReportEntries(EngineExecutionResults results) {
+			return results.testEvents()
+				.reportingEntryPublished()
+				.map(event -> event.getRequiredPayload(ReportEntry.class).getKeyValuePairs())
+				.toList();
+		}
+
+		@Test
+		void should_publish_file_operations() {
+			List<Map<String, String>> entries = getReportEntries(executeTestsForClass(TestCase.class));
+
+			assertThat(entries).singleElement()
+				.satisfies(entry -> assertThat(entry).containsKey("jimfs.tempdir")
+					.containsEntry("jimfs.tempdir.io.opens", "2")
+					.containsEntry("jimfs.tempdir.io.writes", "1")
+					.containsEntry("jimfs.tempdir.io.bytes-written", "7")
+					.containsEntry("jimfs.tempdir.io.bytes-read", "7")
+					.containsEntry("jimfs.tempdir.io.directory-listings", "1")
+					// including the directory check performed by JUnit on creation
+					.containsEntry("jimfs.tempdir.io.attribute-lookups", "2"));
+		}
+
+		static class TestCase {
+
+			@Test
+			void test(@JimfsTempDir(instrumented = true) Path tempDir) throws IOException {
+				Files.writeString(tempDir.resolve("file"), "content");
+				assertThat(Files.readString(tempDir.resolve("file"))).isEqualTo("content");
+				try (Stream<Path> files = Files.list(tempDir)) {
+					assertThat(files).hasSize(1);
+				}
+				assertThat(Files.size(tempDir.resolve("file"))).isEqualTo(7);
+			}
+
+		}
+
+		@Test
+		void should_instrument_all_temp_directories() {
+			List<Map<String, String>> entries = getReportEntries(
+					executeTests(request().selectors(selectClass(ConfigurationParameterTestCase.class))
+						.configurationParameter(INSTRUMENTATION_ENABLED_PARAMETER_NAME, "true")
+						.build()));
+
+			assertThat(entries).singleElement()
+				.satisfies(entry -> assertThat(entry).containsEntry("jimfs.tempdir.io.opens", "1")
+					.containsEntry("jimfs.tempdir.io.bytes-written", "7"));
+		}
+
+		static class ConfigurationParameterTestCase {
+
+			@Test
+			void test(@JimfsTempDir(scope = CLASS) Path tempDir1, @JimfsTempDir(lazy = true) Path tempDir2)
+					throws IOException {
+				Files.writeString(tempDir1.resolve("file"), "content");
+				assertThat(tempDir2.resolve("file").getParent()).isEqualTo(tempDir2);
+			}
+
+		}
+
+	}
+
+	@Nested
+	@DisplayName("with latency")
+	class with_latency {
+
+		@Test
+		void should_delay_each_operation(@JimfsTempDir(latency = @Latency(operationDelay = 5_000)) Path tempDir)
+				throws IOException {
+			long start = System.nanoTime();
+			try (OutputStream out = Files.newOutputStream(tempDir.resolve("file"))) {
+				for (int i = 0; i < 10; i++) {
+					out.write(i);
+				}
+			}
+			long elapsed = System.nanoTime() - start;
+
+			// at least 55 ms for opening the stream and each write, with some slack
+			assertThat(elapsed).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(40));
+			assertThat(Files.size(tempDir.resolve("file"))).isEqualTo(10);
+		}
+
+		@Test
+		void should_delay_by_transferred_bytes(
+				@JimfsTempDir(latency = @Latency(bytesPerSecond = 1_000_000)) Path tempDir) throws IOException {
+			long start = System.nanoTime();
+			Files.write(tempDir.resolve("file"), new byte[100_000]);
+			long elapsed = System.nanoTime() - start;
+
+			// at least 100 ms for the transferred bytes, with some slack
+			assertThat(elapsed).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(80));
+			assertThat(Files.size(tempDir.resolve("file"))).isEqualTo(100_000);
+		}
+
+		@Test
+		void should_delay_metadata_operations(@JimfsTempDir(latency = @Latency(operationDelay = 20_000)) Path tempDir)
+				throws IOException {
+			Path dir = tempDir.resolve("dir");
+
+			long start = System.nanoTime();
+			Files.createDirectory(dir);
+			Files.delete(dir);
+			long elapsed = System.nanoTime() - start;
+
+			// at least 40 ms for creating and deleting the directory, with some slack
+			assertThat(elapsed).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+			assertThat(dir).doesNotExist();
+		}
+
+	}
+
 }
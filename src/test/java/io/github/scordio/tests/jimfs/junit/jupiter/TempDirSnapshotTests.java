@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2024-present Stefano Cordio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.scordio.tests.jimfs.junit.jupiter;
+
+import io.github.scordio.jimfs.junit.jupiter.JimfsTempDir;
+import io.github.scordio.jimfs.junit.jupiter.TempDirSnapshot;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+
+import static io.github.scordio.jimfs.junit.jupiter.JimfsTempDir.Configuration.UNIX;
+import static io.github.scordio.tests.jimfs.junit.jupiter.JupiterEngineTestKit.executeTestsForClass;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@DisplayName("TempDirSnapshot")
+class TempDirSnapshotTests {
+
+	@Test
+	void should_restore_changed_entries(@JimfsTempDir Path tempDir) throws IOException {
+		populate(tempDir);
+		TempDirSnapshot snapshot = TempDirSnapshot.capture(tempDir);
+
+		Files.writeString(tempDir.resolve("file.txt"), "changed content");
+		Files.delete(tempDir.resolve("dir").resolve("nested.txt"));
+		Files.writeString(tempDir.resolve("added.txt"), "added");
+		Files.createDirectories(tempDir.resolve("added").resolve("dir"));
+
+		int restored = snapshot.restore();
+
+		assertThat(restored).isEqualTo(4);
+		assertThat(tempDir.resolve("file.txt")).hasContent("content");
+		assertThat(tempDir.resolve("dir").resolve("nested.txt")).hasContent("nested");
+		assertThat(tempDir.resolve("added.txt")).doesNotExist();
+		assertThat(tempDir.resolve("added")).doesNotExist();
+		assertThat(TempDirSnapshot.capture(tempDir).restore()).isZero();
+	}
+
+	@Test
+	void should_not_touch_unchanged_entries(@JimfsTempDir Path tempDir) throws IOException {
+		populate(tempDir);
+		TempDirSnapshot snapshot = TempDirSnapshot.capture(tempDir);
+		Object fileKey = Files.readAttributes(tempDir.resolve("file.txt"), "fileKey").get("fileKey");
+
+		Files.writeString(tempDir.resolve("dir").resolve("nested.txt"), "changed nested");
+
+		assertThat(snapshot.restore()).isOne();
+		assertThat(snapshot.restore()).isZero();
+		assertThat(Files.readAttributes(tempDir.resolve("file.txt"), "fileKey").get("fileKey")).isEqualTo(fileKey);
+	}
+
+	@Test
+	void should_restore_recreated_entries(@JimfsTempDir Path tempDir) throws IOException {
+		populate(tempDir);
+		TempDirSnapshot snapshot = TempDirSnapshot.capture(tempDir);
+
+		Files.delete(tempDir.resolve("file.txt"));
+		Files.writeString(tempDir.resolve("file.txt"), "content");
+
+		assertThat(snapshot.restore()).isOne();
+		assertThat(snapshot.restore()).isZero();
+		assertThat(tempDir.resolve("file.txt")).hasContent("content");
+	}
+
+	@Test
+	void should_restore_symbolic_links(@JimfsTempDir(UNIX) Path tempDir) throws IOException {
+		populate(tempDir);
+		Files.createSymbolicLink(tempDir.resolve("link"), tempDir.resolve("file.txt"));
+		TempDirSnapshot snapshot = TempDirSnapshot.capture(tempDir);
+
+		Files.delete(tempDir.resolve("link"));
+		Files.createDirectory(tempDir.resolve("link"));
+
+		assertThat(snapshot.restore()).isEqualTo(2);
+		assertThat(tempDir.resolve("link")).isSymbolicLink();
+		assertThat(Files.readSymbolicLink(tempDir.resolve("link"))).isEqualTo(tempDir.resolve("file.txt"));
+	}
+
+	@Test
+	void should_fail_with_non_directory(@JimfsTempDir Path tempDir) throws IOException {
+		Path file = Files.createFile(tempDir.resolve("file.txt"));
+
+		assertThatExceptionOfType(NotDirectoryException.class).isThrownBy(() -> TempDirSnapshot.capture(file));
+	}
+
+	@Test
+	void should_roll_back_between_invocations() {
+		executeTestsForClass(TestCase.class).testEvents().assertStatistics(stats -> stats.started(3).succeeded(3));
+	}
+
+	static class TestCase {
+
+		@JimfsTempDir
+		static Path tempDir;
+
+		static TempDirSnapshot snapshot;
+
+		@BeforeAll
+		static void setUp() throws IOException {
+			populate(tempDir);
+			snapshot = TempDirSnapshot.capture(tempDir);
+		}
+
+		@BeforeEach
+		void restore() throws IOException {
+			snapshot.restore();
+		}
+
+		@RepeatedTest(3)
+		void test() throws IOException {
+			assertThat(tempDir.resolve("file.txt")).hasContent("content");
+			assertThat(tempDir.resolve("added.txt")).doesNotExist();
+
+			Files.writeString(tempDir.resolve("file.txt"), "changed content");
+			Files.writeString(tempDir.resolve("added.txt"), "added");
+		}
+
+	}
+
+	private static void populate(Path directory) throws IOException {
+		Files.writeString(directory.resolve("file.txt"), "content");
+		Files.createDirectory(directory.resolve("dir"));
+		Files.writeString(directory.resolve("dir").resolve("nested.txt"), "nested");
+	}
+
+}
@@ -13,8 +13,13 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+@SuppressWarnings("requires-automatic")
 open module io.github.scordio.tests.jimfs.junit.jupiter {
 	requires io.github.scordio.jimfs.junit.jupiter;
+	requires java.logging;
+	requires java.management;
+	requires jdk.jfr;
+	requires jmh.core;
 	requires org.assertj.core;
 	requires org.junit.jupiter.params;
 	requires org.junit.platform.testkit;